@@ -0,0 +1,41 @@
+package barbershopAPI.barbershopAPI.benchmarks;
+
+import barbershopAPI.barbershopAPI.BarbershopApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arranca a aplicação completa (perfil dev, H2 em memória) para os benchmarks e testes de carga,
+ * sem logs de SQL nem DEBUG. Os argumentos passam como linha de comandos para terem prioridade
+ * sobre os ficheiros de perfil.
+ */
+public final class BenchmarkApplication {
+
+    /** H2 em memória, como no perfil dev. */
+    public static final String H2 = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1";
+    /** H2 em modo de compatibilidade PostgreSQL, para aproximar o comportamento de produção sem Docker. */
+    public static final String H2_POSTGRES_MODE =
+            "jdbc:h2:mem:%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkApplication() {}
+
+    public static ConfigurableApplicationContext start(String datasourceUrl, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=" + datasourceUrl,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate=WARN",
+                "--logging.level.barbershopAPI=WARN",
+                "--server.port=0",
+                "--JWT_SECRET=" + System.getProperty("jwt.secret", "benchmark-secret-benchmark-secret-benchmark")));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(BarbershopApiApplication.class).run(args.toArray(String[]::new));
+    }
+}
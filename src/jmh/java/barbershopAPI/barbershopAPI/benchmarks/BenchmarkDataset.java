@@ -0,0 +1,135 @@
+package barbershopAPI.barbershopAPI.benchmarks;
+
+import barbershopAPI.barbershopAPI.entities.Barber;
+import barbershopAPI.barbershopAPI.entities.Client;
+import barbershopAPI.barbershopAPI.entities.ServiceEntity;
+import barbershopAPI.barbershopAPI.entities.WorkingHours;
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.repositories.BarberRepository;
+import barbershopAPI.barbershopAPI.repositories.ClientRepository;
+import barbershopAPI.barbershopAPI.repositories.ServiceRepository;
+import barbershopAPI.barbershopAPI.repositories.WorkingHoursRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Dataset sintético para os benchmarks: {@code barbers} barbeiros com horário de segunda a sábado
+ * (09:00-13:00 e 14:00-19:00) e {@code months} meses de marcações até ao fim do mês seguinte ao atual,
+ * ocupando cerca de 60% dos slots de 30 minutos. Com a mesma seed o dataset é sempre o mesmo.
+ */
+public final class BenchmarkDataset {
+
+    private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+    private static final double OCCUPANCY = 0.6;
+    private static final int CLIENTS = 500;
+    private static final int BATCH_SIZE = 1_000;
+    // hash BCrypt fixo: os clientes só entram por token gerado, nunca por login
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z0D4hJPJ0E5lFNzYQd6b8O3.";
+
+    /** Marcação ativa futura (para pedir o mesmo slot e provocar um conflito). */
+    public record Booked(Long barberId, Long serviceId, Long clientId, OffsetDateTime startsAt) {}
+
+    public record Data(List<Long> barberIds, List<Long> serviceIds, List<Long> clientIds,
+                       List<LocalDate> futureDays, List<Booked> futureBookings, int appointments) {}
+
+    private BenchmarkDataset() {}
+
+    public static Data generate(ApplicationContext ctx, int barbers, int months, long seed) {
+        Random random = new Random(seed);
+        var barberRepo = ctx.getBean(BarberRepository.class);
+        var serviceRepo = ctx.getBean(ServiceRepository.class);
+        var clientRepo = ctx.getBean(ClientRepository.class);
+        var workingHoursRepo = ctx.getBean(WorkingHoursRepository.class);
+        var jdbc = ctx.getBean(JdbcTemplate.class);
+
+        List<ServiceEntity> services = serviceRepo.saveAll(List.of(
+                ServiceEntity.builder().name("Corte").durationMin(30).priceCents(1500).build(),
+                ServiceEntity.builder().name("Barba").durationMin(20).bufferAfterMin(10).priceCents(1000).build(),
+                ServiceEntity.builder().name("Corte rápido").durationMin(15).priceCents(800).build()));
+
+        List<Client> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(Client.builder().name("Cliente " + i).email("cliente" + i + "@bench.local")
+                    .password(PASSWORD_HASH).build());
+        }
+        clients = clientRepo.saveAll(clients);
+
+        List<Barber> barberList = new ArrayList<>(barbers);
+        for (int i = 0; i < barbers; i++) barberList.add(Barber.builder().name("Barbeiro " + i).build());
+        barberList = barberRepo.saveAll(barberList);
+
+        List<WorkingHours> hours = new ArrayList<>();
+        for (Barber b : barberList) {
+            for (DayOfWeek dow : DayOfWeek.values()) {
+                if (dow == DayOfWeek.SUNDAY) continue;
+                hours.add(WorkingHours.builder().barber(b).dayOfWeek(dow)
+                        .startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(13, 0)).build());
+                hours.add(WorkingHours.builder().barber(b).dayOfWeek(dow)
+                        .startTime(LocalTime.of(14, 0)).endTime(LocalTime.of(19, 0)).build());
+            }
+        }
+        workingHoursRepo.saveAll(hours);
+
+        LocalDate today = LocalDate.now(TZ);
+        LocalDate from = today.minusMonths(months - 1L).withDayOfMonth(1);
+        LocalDate to = today.plusMonths(1).withDayOfMonth(1).plusMonths(1);
+        OffsetDateTime now = OffsetDateTime.now(TZ);
+
+        List<LocalDate> futureDays = new ArrayList<>();
+        List<Booked> futureBookings = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int total = 0;
+        String sql = "INSERT INTO appointment (id, barber_id, service_id, client_id, starts_at, ends_at, status, is_active, created_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SUNDAY) continue;
+            if (day.isAfter(today)) futureDays.add(day);
+            for (Barber b : barberList) {
+                for (LocalTime t = LocalTime.of(9, 0); t.isBefore(LocalTime.of(19, 0)); t = t.plusMinutes(30)) {
+                    if (t.getHour() == 13 || random.nextDouble() >= OCCUPANCY) continue;
+                    ServiceEntity s = services.get(random.nextInt(services.size()));
+                    Client c = clients.get(random.nextInt(clients.size()));
+                    OffsetDateTime startsAt = day.atTime(t).atZone(TZ).toOffsetDateTime();
+                    OffsetDateTime endsAt = startsAt.plusMinutes(s.getDurationMin() + s.getBufferAfterMin());
+                    AppointmentStatus status = statusFor(startsAt.isBefore(now), random);
+                    boolean active = status != AppointmentStatus.CANCELLED;
+
+                    batch.add(new Object[] { UUID.randomUUID(), b.getId(), s.getId(), c.getId(),
+                            startsAt, endsAt, status.name(), active, startsAt.minusDays(7) });
+                    if (active && startsAt.isAfter(now)) {
+                        futureBookings.add(new Booked(b.getId(), s.getId(), c.getId(), startsAt));
+                    }
+                    if (batch.size() == BATCH_SIZE) {
+                        jdbc.batchUpdate(sql, batch);
+                        total += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+            total += batch.size();
+        }
+
+        return new Data(
+                barberList.stream().map(Barber::getId).toList(),
+                services.stream().map(ServiceEntity::getId).toList(),
+                clients.stream().map(Client::getId).toList(),
+                futureDays, futureBookings, total);
+    }
+
+    private static AppointmentStatus statusFor(boolean past, Random random) {
+        double r = random.nextDouble();
+        if (r < 0.10) return AppointmentStatus.CANCELLED;
+        if (!past) return AppointmentStatus.SCHEDULED;
+        return r < 0.15 ? AppointmentStatus.NO_SHOW : AppointmentStatus.COMPLETED;
+    }
+}
@@ -0,0 +1,110 @@
+package barbershopAPI.barbershopAPI.benchmarks;
+
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateAppointmentRequest;
+import barbershopAPI.barbershopAPI.services.AppointmentService;
+import barbershopAPI.barbershopAPI.services.AvailabilityService;
+import barbershopAPI.barbershopAPI.services.DashboardService;
+import barbershopAPI.barbershopAPI.services.Scheduling.ScheduleCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos quentes do agendamento e do dashboard contra um dataset H2 gerado.
+ * Tamanho do dataset: -p barbers=N -p months=M (ver BenchmarkDataset).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmarks {
+
+    @Param("10")
+    public int barbers;
+
+    @Param("3")
+    public int months;
+
+    private ConfigurableApplicationContext ctx;
+    private AvailabilityService availabilityService;
+    private AppointmentService appointmentService;
+    private DashboardService dashboardService;
+    private ScheduleCache scheduleCache;
+    private BenchmarkDataset.Data data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchmarkApplication.start(String.format(BenchmarkApplication.H2, "bench"));
+        availabilityService = ctx.getBean(AvailabilityService.class);
+        appointmentService = ctx.getBean(AppointmentService.class);
+        dashboardService = ctx.getBean(DashboardService.class);
+        scheduleCache = ctx.getBean(ScheduleCache.class);
+        data = BenchmarkDataset.generate(ctx, barbers, months, 42L);
+        if (data.futureBookings().isEmpty()) {
+            throw new IllegalStateException("Dataset sem marcações futuras");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    /** Cursor por thread para percorrer barbeiros, dias e marcações sem repetir sempre a mesma chave. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+        int barber;
+        int day;
+
+        int next(int size) {
+            i = (i + 1) % size;
+            return i;
+        }
+
+        // barbeiro e dia com contadores separados: o dia avança quando os barbeiros dão a volta,
+        // por isso cada barbeiro acaba por ser medido em todos os dias
+        void nextBarberDay(int barbers, int days) {
+            barber = (barber + 1) % barbers;
+            if (barber == 0) day = (day + 1) % days;
+        }
+    }
+
+    @Benchmark
+    public Object availabilityCached(Cursor cursor) {
+        cursor.nextBarberDay(data.barberIds().size(), data.futureDays().size());
+        Long barberId = data.barberIds().get(cursor.barber);
+        LocalDate day = data.futureDays().get(cursor.day);
+        return availabilityService.getAvailableStarts(barberId, data.serviceIds().get(0), day);
+    }
+
+    @Benchmark
+    public Object availabilityUncached(Cursor cursor) {
+        cursor.nextBarberDay(data.barberIds().size(), data.futureDays().size());
+        Long barberId = data.barberIds().get(cursor.barber);
+        LocalDate day = data.futureDays().get(cursor.day);
+        scheduleCache.invalidateBarber(barberId);
+        return availabilityService.getAvailableStarts(barberId, data.serviceIds().get(0), day);
+    }
+
+    /** Pede um slot já ocupado: mede as leituras e a pré-verificação de conflito do create, sem inserir. */
+    @Benchmark
+    public Object createConflictCheck(Cursor cursor) {
+        var booked = data.futureBookings().get(cursor.next(data.futureBookings().size()));
+        try {
+            return appointmentService.create(new CreateAppointmentRequest(
+                    booked.barberId(), booked.serviceId(), booked.clientId(), booked.startsAt(), null, null));
+        } catch (AppointmentService.SlotConflictException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object dashboardStatistics() {
+        return dashboardService.calculateStatistics();
+    }
+}
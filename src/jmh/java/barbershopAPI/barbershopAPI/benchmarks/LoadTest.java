@@ -0,0 +1,269 @@
+package barbershopAPI.barbershopAPI.benchmarks;
+
+import barbershopAPI.barbershopAPI.services.AvailabilityService;
+import barbershopAPI.barbershopAPI.services.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gerador de carga sintética contra a aplicação embebida (porta aleatória, H2 ou H2 em modo
+ * PostgreSQL). Cada utilizador virtual escolhe uma operação segundo o mix abaixo, em ciclo
+ * fechado, durante o tempo configurado; no fim imprime p50/p95/p99 e throughput por endpoint
+ * e escreve o relatório em JSON.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@loadtest
+ * mvn -Pbenchmarks test-compile exec:exec@loadtest -Dloadtest.db=postgres -Dloadtest.users=64 -Dloadtest.duration=120
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+
+    // mix de tráfego (pesos relativos)
+    private static final List<Map.Entry<String, Integer>> MIX = List.of(
+            Map.entry("availability", 35),
+            Map.entry("availabilityRange", 5),
+            Map.entry("book", 15),
+            Map.entry("cancel", 5),
+            Map.entry("listAppointments", 5),
+            Map.entry("dashboard", 15),
+            Map.entry("notificationsCount", 15),
+            Map.entry("notificationsUnread", 5));
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String token;
+    private final BenchmarkDataset.Data data;
+    private final ObjectMapper json = new ObjectMapper();
+    // poucos slots disputados por todos os utilizadores, para haver corridas à mesma vaga
+    private final List<Slot> hotSlots;
+    private final Queue<String> booked = new ConcurrentLinkedQueue<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final AtomicBoolean recording = new AtomicBoolean(false);
+
+    private record Slot(Long barberId, OffsetDateTime startsAt) {}
+
+    private LoadTest(HttpClient http, String baseUrl, String token, BenchmarkDataset.Data data, List<Slot> hotSlots) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.data = data;
+        this.hotSlots = hotSlots;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String db = System.getProperty("loadtest.db", "h2");
+        int users = Integer.getInteger("loadtest.users", 16);
+        int warmup = Integer.getInteger("loadtest.warmup", 10);
+        int duration = Integer.getInteger("loadtest.duration", 60);
+        int barbers = Integer.getInteger("loadtest.barbers", 10);
+        int months = Integer.getInteger("loadtest.months", 3);
+        File report = new File(args.length > 0 ? args[0] : "target/loadtest-report.json");
+
+        String url = String.format("postgres".equals(db) ? BenchmarkApplication.H2_POSTGRES_MODE : BenchmarkApplication.H2, "load");
+        // sem SMTP local: a ligação é recusada de imediato e os erros de envio não poluem o relatório
+        try (ConfigurableApplicationContext ctx = BenchmarkApplication.start(url,
+                "--MAIL_HOST=127.0.0.1", "--MAIL_PORT=2525",
+                "--logging.level.barbershopAPI.barbershopAPI.services.Mailer=OFF",
+                "--spring.datasource.hikari.maximum-pool-size=" + Integer.getInteger("loadtest.pool", 10))) {
+
+            BenchmarkDataset.Data data = BenchmarkDataset.generate(ctx, barbers, months, 42L);
+            int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            String token = ctx.getBean(JwtService.class).generateToken("cliente0@bench.local");
+
+            // vagas livres do primeiro dia futuro dos primeiros barbeiros
+            AvailabilityService availability = ctx.getBean(AvailabilityService.class);
+            LocalDate hotDay = data.futureDays().get(0);
+            List<Slot> hotSlots = new ArrayList<>();
+            for (Long barberId : data.barberIds().subList(0, Math.min(3, data.barberIds().size()))) {
+                for (OffsetDateTime start : availability.getAvailableStarts(barberId, data.serviceIds().get(0), hotDay)) {
+                    hotSlots.add(new Slot(barberId, start));
+                }
+            }
+
+            HttpClient http = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newFixedThreadPool(Math.max(4, users / 4)))
+                    .build();
+            LoadTest test = new LoadTest(http, "http://localhost:" + port, token, data, hotSlots);
+
+            System.out.printf("Load test: db=%s users=%d warmup=%ds duration=%ds barbers=%d months=%d appointments=%d%n",
+                    db, users, warmup, duration, barbers, months, data.appointments());
+            test.run(users, warmup, duration);
+            test.report(report, Map.of("db", db, "users", users, "durationSeconds", duration,
+                    "barbers", barbers, "months", months, "appointments", data.appointments()), duration);
+        }
+        System.exit(0);
+    }
+
+    private void run(int users, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds + durationSeconds);
+        for (int u = 0; u < users; u++) {
+            long seed = u;
+            pool.submit(() -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() < end) {
+                    step(pick(random), random);
+                }
+            });
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        recording.set(true);
+        pool.shutdown();
+        pool.awaitTermination(durationSeconds + 30L, TimeUnit.SECONDS);
+    }
+
+    private static String pick(Random random) {
+        int total = MIX.stream().mapToInt(Map.Entry::getValue).sum();
+        int r = random.nextInt(total);
+        for (var e : MIX) {
+            r -= e.getValue();
+            if (r < 0) return e.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    private void step(String op, Random random) {
+        Long barberId = data.barberIds().get(random.nextInt(data.barberIds().size()));
+        Long serviceId = data.serviceIds().get(random.nextInt(data.serviceIds().size()));
+        LocalDate day = data.futureDays().get(random.nextInt(Math.min(14, data.futureDays().size())));
+        switch (op) {
+            case "availability" -> call("GET /availability", get("/availability?barberId=" + barberId
+                    + "&serviceId=" + serviceId + "&date=" + day));
+            case "availabilityRange" -> call("GET /availability/range", get("/availability/range?barberIds="
+                    + barberId + "&serviceId=" + serviceId + "&from=" + day + "&to=" + day.plusDays(6)));
+            case "book" -> {
+                if (hotSlots.isEmpty()) return;
+                Slot slot = hotSlots.get(random.nextInt(hotSlots.size()));
+                Long clientId = data.clientIds().get(random.nextInt(data.clientIds().size()));
+                String body = "{\"barberId\":" + slot.barberId() + ",\"serviceId\":" + data.serviceIds().get(0)
+                        + ",\"clientId\":" + clientId + ",\"startsAt\":\"" + slot.startsAt() + "\"}";
+                HttpResponse<String> res = call("POST /appointments", authed("/appointments")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)));
+                if (res != null && res.statusCode() == 200) booked.add(idOf(res.body()));
+            }
+            case "cancel" -> {
+                String id = booked.poll();
+                if (id == null) return;
+                call("PATCH /appointments/{id}/cancel", authed("/appointments/" + id + "/cancel")
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+            }
+            case "listAppointments" -> {
+                OffsetDateTime from = day.atStartOfDay(TZ).toOffsetDateTime();
+                call("GET /appointments", authed("/appointments?barberId=" + barberId
+                        + "&from=" + encode(from) + "&to=" + encode(from.plusDays(7))).GET());
+            }
+            case "dashboard" -> call("GET /dashboard/statistics", authed("/dashboard/statistics").GET());
+            case "notificationsCount" -> call("GET /notifications/unread/count", authed("/notifications/unread/count").GET());
+            case "notificationsUnread" -> call("GET /notifications/unread", authed("/notifications/unread").GET());
+            default -> throw new IllegalArgumentException(op);
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private HttpRequest.Builder authed(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> call(String endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        HttpResponse<String> res = null;
+        try {
+            res = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (recording.get()) {
+            stats.computeIfAbsent(endpoint, k -> new Stats()).record(micros, res == null ? -1 : res.statusCode());
+        }
+        return res;
+    }
+
+    private String idOf(String body) {
+        try {
+            return json.readTree(body).get("id").asText();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String encode(OffsetDateTime t) {
+        return java.net.URLEncoder.encode(t.toString(), java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private void report(File file, Map<String, Object> config, int durationSeconds) throws Exception {
+        Map<String, Object> endpoints = new TreeMap<>();
+        System.out.printf("%n%-34s %9s %10s %9s %9s %9s %9s %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "status");
+        for (var e : new TreeMap<>(stats).entrySet()) {
+            Map<String, Object> summary = e.getValue().summary(durationSeconds);
+            endpoints.put(e.getKey(), summary);
+            System.out.printf("%-34s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %s%n", e.getKey(),
+                    summary.get("requests"), summary.get("throughput"), summary.get("p50Ms"),
+                    summary.get("p95Ms"), summary.get("p99Ms"), summary.get("maxMs"), summary.get("status"));
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("config", config);
+        out.put("endpoints", endpoints);
+        file.getParentFile().mkdirs();
+        json.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, out);
+        System.out.println("\nRelatório escrito em " + file.getPath());
+    }
+
+    /** Latências (µs) e códigos de resposta de um endpoint; as percentis saem das amostras ordenadas. */
+    private static final class Stats {
+        private long[] samples = new long[1024];
+        private int size;
+        private final Map<Integer, Integer> status = new TreeMap<>();
+
+        synchronized void record(long micros, int code) {
+            if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+            samples[size++] = micros;
+            status.merge(code, 1, Integer::sum);
+        }
+
+        synchronized Map<String, Object> summary(int durationSeconds) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("requests", size);
+            m.put("throughput", size / (double) durationSeconds);
+            m.put("p50Ms", percentile(sorted, 0.50));
+            m.put("p95Ms", percentile(sorted, 0.95));
+            m.put("p99Ms", percentile(sorted, 0.99));
+            m.put("maxMs", size == 0 ? 0.0 : sorted[size - 1] / 1000.0);
+            m.put("status", new TreeMap<>(status));
+            return m;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0.0;
+            int i = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(i, 0)] / 1000.0;
+        }
+    }
+}
@@ -1,8 +1,98 @@
 package barbershopAPI.barbershopAPI.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Slf4j
 @Configuration  @EnableAsync
 public class AsyncConfig {
+
+    /** Nome do executor dos emails, para usar em {@code @Async(AsyncConfig.MAIL_EXECUTOR)}. */
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+
+    /** Executor que escreve nos streams SSE de notificações. */
+    public static final String NOTIFICATION_STREAM_EXECUTOR = "notificationStreamExecutor";
+
+    /**
+     * Executor geral da aplicação, usado também pelo MVC nos pedidos assíncronos (ex.: o
+     * StreamingResponseBody de /availability/range). O Spring Boot só o cria quando não há nenhum
+     * outro Executor no contexto, por isso, com os executores abaixo, tem de ser declarado aqui;
+     * sem ele o MVC passava a usar um SimpleAsyncTaskExecutor, com uma thread nova por pedido.
+     * Tamanhos em spring.task.execution.pool.*.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Executor dedicado aos emails: threads e fila limitadas, para que um pico de marcações com o
+     * SMTP lento não acumule trabalho sem fim. Com a fila cheia, "caller-runs" envia na thread do
+     * pedido (abranda quem está a produzir) e "drop" descarta a tarefa e conta-a; o email continua
+     * no outbox e sai no próximo polling.
+     * As métricas executor.* (fila, threads ativas, tarefas concluídas) são registadas pelo actuator
+     * com a tag name=mailExecutor.
+     */
+    @Bean(name = MAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${MAIL_EXECUTOR_CORE_SIZE:2}") int coreSize,
+                                               @Value("${MAIL_EXECUTOR_MAX_SIZE:4}") int maxSize,
+                                               @Value("${MAIL_EXECUTOR_QUEUE_CAPACITY:200}") int queueCapacity,
+                                               @Value("${MAIL_EXECUTOR_REJECTION:caller-runs}") String rejection,
+                                               MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("mail.executor.rejected")
+                .description("Envios de email recusados com a fila do executor cheia")
+                .tag("policy", rejection)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mail-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(rejectionHandler(rejection, rejected));
+        // no shutdown, deixar terminar os envios já aceites
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Envio dos eventos SSE aos painéis ligados: cada subscritor tem a sua fila limitada e no máximo
+     * uma tarefa de envio de cada vez, por isso um cliente lento não atrasa os pedidos nem os outros.
+     */
+    @Bean(name = NOTIFICATION_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationStreamExecutor(@Value("${NOTIFICATION_STREAM_THREADS:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("sse-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(1000);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(String policy, Counter rejected) {
+        return switch (policy.trim().toLowerCase()) {
+            case "caller-runs" -> (task, pool) -> {
+                rejected.increment();
+                new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, pool);
+            };
+            case "drop" -> (task, pool) -> {
+                rejected.increment();
+                log.warn("Fila de emails cheia ({} pendentes); envio adiado para o polling do outbox", pool.getQueue().size());
+            };
+            default -> throw new IllegalArgumentException(
+                    "MAIL_EXECUTOR_REJECTION inválido: " + policy + " (caller-runs | drop)");
+        };
+    }
 }
@@ -1,14 +1,22 @@
 package barbershopAPI.barbershopAPI.config;
 
+import barbershopAPI.barbershopAPI.services.Auth.AuthenticatedClient;
+import barbershopAPI.barbershopAPI.services.Auth.TokenRevocationService;
 import barbershopAPI.barbershopAPI.services.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,6 +25,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 
 @Slf4j
 @Component
@@ -25,6 +36,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService revocations;
+
+    // Só para tokens antigos sem claims de cliente; 0 desliga a cache
+    @Value("${JWT_PRINCIPAL_CACHE_TTL_S:60}")
+    private long principalCacheTtlSeconds;
+
+    private Cache<String, UserDetails> principalCache;
+
+    @PostConstruct
+    void init() {
+        if (principalCacheTtlSeconds > 0) {
+            principalCache = Caffeine.newBuilder()
+                    .maximumSize(10_000)
+                    .expireAfterWrite(Duration.ofSeconds(principalCacheTtlSeconds))
+                    .build();
+        }
+    }
 
     @Override
     protected void doFilterInternal(
@@ -34,7 +62,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
+        final Claims claims;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -43,21 +71,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // assinatura e expiração verificadas aqui, uma única vez por pedido
+            claims = jwtService.parseToken(jwt);
         } catch (Exception e) {
             log.warn("Invalid JWT token: {}", e.getMessage());
             filterChain.doFilter(request, response);
             return;
         }
 
+        if (revocations.isRevoked(claims)) {
+            log.debug("JWT revogado (jti {})", claims.getId());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final String userEmail = claims.getSubject();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+            UsernamePasswordAuthenticationToken authToken = fromClaims(claims);
+            if (authToken == null) {
+                // token antigo, sem id nem papéis nas claims: carregar o utilizador (com cache curta)
+                UserDetails userDetails = loadUser(userEmail);
+                if (userEmail.equals(userDetails.getUsername())) {
+                    authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+                }
+            }
+            if (authToken != null) {
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -66,4 +108,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Autenticação só a partir do token verificado: o principal é o AuthenticatedClient das claims
+    private UsernamePasswordAuthenticationToken fromClaims(Claims claims) {
+        Number clientId = claims.get(JwtService.CLAIM_CLIENT_ID, Number.class);
+        List<?> roles = claims.get(JwtService.CLAIM_ROLES, List.class);
+        if (clientId == null || roles == null) return null;
+        List<SimpleGrantedAuthority> authorities = roles.stream()
+                .map(r -> new SimpleGrantedAuthority(String.valueOf(r)))
+                .toList();
+        return new UsernamePasswordAuthenticationToken(
+                new AuthenticatedClient(clientId.longValue(), claims.getSubject()), null, authorities);
+    }
+
+    private UserDetails loadUser(String email) {
+        return principalCache == null
+                ? userDetailsService.loadUserByUsername(email)
+                : principalCache.get(email.toLowerCase(Locale.ROOT), k -> userDetailsService.loadUserByUsername(email));
+    }
 }
@@ -1,20 +1,26 @@
 package barbershopAPI.barbershopAPI.controllers;
 
 
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentCursor;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateAppointmentRequest;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateSeriesRequest;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.SeriesResponse;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.UpdateAppointmentRequest;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.UpdateStatusRequest;
-import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.dto.CursorPage;
 import barbershopAPI.barbershopAPI.entities.Appointment;
+import barbershopAPI.barbershopAPI.entities.Client;
 import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
 import barbershopAPI.barbershopAPI.repositories.ClientRepository;
 import barbershopAPI.barbershopAPI.services.AppointmentService;
-import barbershopAPI.barbershopAPI.services.JwtService;
-import barbershopAPI.barbershopAPI.services.NotificationService;
+import barbershopAPI.barbershopAPI.services.Auth.AuthenticatedClient;
 import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -24,78 +30,53 @@ import java.util.UUID;
 public class AppointmentController {
     private final AppointmentService appointmentService;
     private final AppointmentRepository appointmentRepo;
-    private final JwtService jwtService;
     private final ClientRepository clientRepo;
-    private final NotificationService notificationService;
 
+    // Com Idempotency-Key, os retries do mesmo pedido devolvem a marcação original em vez de marcar outra vez.
+    // Uma reserva de horário (holdId) só é consumida pelo cliente do token, nunca pelo clientId do corpo
     @PostMapping
-    public AppointmentResponse create(@Valid @RequestBody CreateAppointmentRequest req) {
-        return appointmentService.create(req);
+    public AppointmentResponse create(@Valid @RequestBody CreateAppointmentRequest req,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      Authentication authentication) {
+        Long callerId = req.holdId() == null ? null : currentClientId(authentication);
+        return appointmentService.create(req, callerId, idempotencyKey);
     }
 
+    // Série recorrente: cria as ocorrências livres e devolve o resultado de cada uma
+    @PostMapping("/series")
+    public SeriesResponse createSeries(@Valid @RequestBody CreateSeriesRequest req) {
+        return appointmentService.createSeries(req);
+    }
+
+    // Marcações do barbeiro entre from e to, paginadas por cursor: ?cursor=<nextCursor da página anterior>.
+    // Um intervalo longo nunca vem numa só resposta (50 por omissão, máximo 200)
     @GetMapping
-    public List<AppointmentResponse> list(@RequestParam Long barberId,
-                                          @RequestParam OffsetDateTime from,
-                                          @RequestParam OffsetDateTime to) {
-        return appointmentRepo.findAllByBarberIdAndStartsAtBetween(barberId, from, to).stream()
-                .map(a -> new AppointmentResponse(a.getId(), a.getBarber().getId(), a.getService().getId(),
-                        a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus().name(), a.getNotes()))
-                .toList();
+    public CursorPage<AppointmentResponse> list(@RequestParam Long barberId,
+                                                @RequestParam OffsetDateTime from,
+                                                @RequestParam OffsetDateTime to,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.listForBarber(barberId, from, to, AppointmentCursor.decode(cursor), limit);
+    }
+
+    // O mesmo que o GET /appointments, mantido para os clientes que já usam este caminho
+    @GetMapping("/page")
+    public CursorPage<AppointmentResponse> listPage(@RequestParam Long barberId,
+                                                    @RequestParam OffsetDateTime from,
+                                                    @RequestParam OffsetDateTime to,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.listForBarber(barberId, from, to, AppointmentCursor.decode(cursor), limit);
     }
 
     @PatchMapping("/{id}/cancel")
     public AppointmentResponse cancel(@PathVariable UUID id) {
-        Appointment a = appointmentRepo.findById(id).orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
-        a.setStatus(AppointmentStatus.CANCELLED);
-        a.setActive(false);
-        a = appointmentRepo.save(a);
-        
-        // Create notification for cancelled appointment
-        try {
-            String timeStr = a.getStartsAt().toLocalTime().toString();
-            notificationService.notifyAppointmentCancelled(a.getClient().getName(), timeStr);
-        } catch (Exception ex) {
-            // Log error but don't fail the request
-            System.err.println("Falha ao criar notificação para cancelamento: " + ex.getMessage());
-        }
-        
-        return new AppointmentResponse(a.getId(), a.getBarber().getId(), a.getService().getId(),
-                a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus().name(), a.getNotes());
+        return appointmentService.cancel(id);
     }
 
     @PatchMapping("/{id}/status")
     public AppointmentResponse updateStatus(@PathVariable UUID id, @Valid @RequestBody UpdateStatusRequest req) {
-        Appointment a = appointmentRepo.findById(id).orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
-        
-        try {
-            AppointmentStatus newStatus = AppointmentStatus.valueOf(req.status().toUpperCase());
-            a.setStatus(newStatus);
-            
-            // Se cancelar, desativar
-            if (newStatus == AppointmentStatus.CANCELLED) {
-                a.setActive(false);
-            }
-            
-            a = appointmentRepo.save(a);
-            
-            // Create notification based on status change
-            try {
-                String timeStr = a.getStartsAt().toLocalTime().toString();
-                if (newStatus == AppointmentStatus.SCHEDULED) {
-                    notificationService.notifyAppointmentConfirmed(a.getClient().getName(), timeStr);
-                } else if (newStatus == AppointmentStatus.CANCELLED) {
-                    notificationService.notifyAppointmentCancelled(a.getClient().getName(), timeStr);
-                }
-            } catch (Exception ex) {
-                // Log error but don't fail the request
-                System.err.println("Falha ao criar notificação para mudança de status: " + ex.getMessage());
-            }
-            
-            return new AppointmentResponse(a.getId(), a.getBarber().getId(), a.getService().getId(),
-                    a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus().name(), a.getNotes());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid status. Valid values: SCHEDULED, CANCELLED, COMPLETED, NO_SHOW");
-        }
+        return appointmentService.updateStatus(id, req.status());
     }
 
 
@@ -111,71 +92,44 @@ public class AppointmentController {
         return appointmentService.update(id, req);
     }
 
+    // Histórico do cliente autenticado, da mais recente para a mais antiga, paginado como /my/past
     @GetMapping("/my")
-    public List<AppointmentResponse> getMyAppointments(@RequestHeader("Authorization") String authHeader) {
-        try {
-            System.out.println("=== ENDPOINT /my CHAMADO ===");
-            System.out.println("Header Authorization: " + authHeader);
-            
-            // Validar header de autorização
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                System.out.println("ERRO: Header Authorization inválido");
-                throw new org.springframework.security.authentication.BadCredentialsException("Header Authorization inválido");
-            }
-            
-            // Extrair clientId do token JWT
-            String token = authHeader.substring(7); // Remove "Bearer "
-            System.out.println("Token extraído: " + token.substring(0, Math.min(50, token.length())) + "...");
-            
-            // Validar token
-            boolean isValid = jwtService.validateToken(token);
-            System.out.println("Token válido: " + isValid);
-            
-            if (!isValid) {
-                System.out.println("ERRO: Token JWT inválido ou expirado");
-                throw new org.springframework.security.authentication.BadCredentialsException("Token JWT inválido ou expirado");
-            }
-            
-            String email = jwtService.extractUsername(token);
-            System.out.println("Email extraído: " + email);
-            
-            // Buscar cliente pelo email
-            var client = clientRepo.findByEmailIgnoreCase(email).orElse(null);
-            if (client == null) {
-                System.out.println("ERRO: Cliente não encontrado para email: " + email);
-                throw new org.springframework.security.authentication.BadCredentialsException("Cliente não encontrado");
-            }
-            
-            Long clientId = client.getId();
-            System.out.println("ClientId encontrado: " + clientId);
-            
-            List<Appointment> appointments = appointmentRepo.findAllByClientIdOrderByStartsAtDesc(clientId);
-            System.out.println("Appointments encontrados: " + appointments.size());
-            
-            List<AppointmentResponse> result = appointments.stream()
-                    .map(a -> new AppointmentResponse(a.getId(), a.getBarber().getId(), a.getService().getId(),
-                            a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus().name(), a.getNotes()))
-                    .toList();
-            
-            System.out.println("Resultado retornado: " + result.size() + " appointments");
-            return result;
-                    
-        } catch (NumberFormatException e) {
-            System.out.println("ERRO NumberFormatException: " + e.getMessage());
-            throw new org.springframework.security.authentication.BadCredentialsException("Erro ao converter clientId: " + e.getMessage());
-        } catch (org.springframework.security.authentication.BadCredentialsException e) {
-            System.out.println("ERRO BadCredentialsException: " + e.getMessage());
-            // Re-throw BadCredentialsException as is
-            throw e;
-        } catch (Exception e) {
-            System.out.println("ERRO Exception: " + e.getMessage());
-            e.printStackTrace();
-            // Se for token expirado, retornar 401 em vez de 500
-            if (e.getMessage().contains("JWT expired")) {
-                throw new org.springframework.security.authentication.BadCredentialsException("Token expirado");
-            }
-            throw new RuntimeException("Erro ao processar token JWT: " + e.getMessage(), e);
+    public CursorPage<AppointmentResponse> getMyAppointments(Authentication authentication,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "20") int limit) {
+        return appointmentService.historyForClient(currentClientId(authentication),
+                AppointmentCursor.decode(cursor), limit);
+    }
+
+    // Histórico do cliente autenticado, paginado: próximas por ordem cronológica...
+    @GetMapping("/my/upcoming")
+    public CursorPage<AppointmentResponse> getMyUpcoming(Authentication authentication,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        return appointmentService.upcomingForClient(currentClientId(authentication),
+                AppointmentCursor.decode(cursor), limit);
+    }
+
+    // ...e passadas da mais recente para a mais antiga
+    @GetMapping("/my/past")
+    public CursorPage<AppointmentResponse> getMyPast(Authentication authentication,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        return appointmentService.pastForClient(currentClientId(authentication),
+                AppointmentCursor.decode(cursor), limit);
+    }
+
+    // Id do cliente a partir das claims do token; só tokens antigos (sem id) obrigam a procurar pelo email
+    private Long currentClientId(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new BadCredentialsException("Token JWT inválido ou expirado");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedClient client) {
+            return client.id();
         }
+        return clientRepo.findByEmailIgnoreCase(authentication.getName())
+                .map(Client::getId)
+                .orElseThrow(() -> new BadCredentialsException("Cliente não encontrado"));
     }
 
     // Endpoint temporário para debug - remover depois
@@ -2,6 +2,8 @@
 package barbershopAPI.barbershopAPI.controllers;
 
 import barbershopAPI.barbershopAPI.repositories.ClientRepository;
+import barbershopAPI.barbershopAPI.services.Auth.TokenRevocationService;
+import barbershopAPI.barbershopAPI.services.ClientUserDetailsService;
 import barbershopAPI.barbershopAPI.services.JwtService;
 import barbershopAPI.barbershopAPI.services.RegistrationService;
 import barbershopAPI.barbershopAPI.services.PasswordResetService;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,6 +26,7 @@ public class AuthController {
     private final RegistrationService registrationService;
     private final PasswordResetService passwordResetService;
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
     private final PasswordEncoder passwordEncoder;
 
     public record RegisterResponse(boolean sent){}
@@ -58,7 +62,7 @@ public class AuthController {
             return ResponseEntity.status(401).body(Map.of("message","Credenciais inválidas."));
         }
         
-        String jwt = jwtService.generateToken(c.getEmail());
+        String jwt = jwtService.generateToken(c.getId(), c.getEmail(), List.of(ClientUserDetailsService.DEFAULT_ROLE));
         String refreshToken = jwtService.generateRefreshToken(c.getEmail());
         return ResponseEntity.ok(Map.of(
                 "token", jwt,
@@ -93,19 +97,19 @@ public class AuthController {
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshRequest req){
         try {
-            // Validar refresh token
-            if (!jwtService.validateToken(req.refreshToken())) {
+            // Validar refresh token (assinatura e expiração; lança exceção se inválido)
+            var claims = jwtService.parseToken(req.refreshToken());
+            if (tokenRevocationService.isRevoked(claims)) {
                 return ResponseEntity.status(401).body(Map.of("message", "Refresh token inválido."));
             }
-            
-            String email = jwtService.extractUsername(req.refreshToken());
+            String email = claims.getSubject();
             var c = clientRepo.findByEmailIgnoreCase(email).orElse(null);
             if (c == null) {
                 return ResponseEntity.status(401).body(Map.of("message", "Utilizador não encontrado."));
             }
             
             // Gerar novos tokens
-            String newJwt = jwtService.generateToken(c.getEmail());
+            String newJwt = jwtService.generateToken(c.getId(), c.getEmail(), List.of(ClientUserDetailsService.DEFAULT_ROLE));
             String newRefreshToken = jwtService.generateRefreshToken(c.getEmail());
             
             return ResponseEntity.ok(Map.of(
@@ -118,6 +122,28 @@ public class AuthController {
         }
     }
 
+    // LOGOUT - revoga o access token do header e, se vier, o refresh token
+    public record LogoutRequest(String refreshToken){}
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) LogoutRequest req){
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            revokeQuietly(authHeader.substring(7));
+        }
+        if (req != null && req.refreshToken() != null) {
+            revokeQuietly(req.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Token inválido ou expirado já não autentica: não há nada a revogar
+    private void revokeQuietly(String token) {
+        try {
+            tokenRevocationService.revoke(jwtService.parseToken(token));
+        } catch (Exception ignored) {
+        }
+    }
+
     // FORGOT PASSWORD - Solicitar reset
     public record ForgotPasswordRequest(@Email String email){}
     @PostMapping("/forgot-password")
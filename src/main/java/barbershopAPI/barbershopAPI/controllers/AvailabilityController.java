@@ -1,21 +1,54 @@
 package barbershopAPI.barbershopAPI.controllers;
 
+import barbershopAPI.barbershopAPI.dto.AvailabilityDTOs.BarberDaySlots;
 import barbershopAPI.barbershopAPI.services.AvailabilityService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController @RequestMapping("/availability") @RequiredArgsConstructor
 public class AvailabilityController {
     private final AvailabilityService availabilityService;
+    private final ObjectMapper objectMapper;
+
     @GetMapping
     public List<OffsetDateTime> get(@RequestParam Long barberId,
                                     @RequestParam Long serviceId,
                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         return availabilityService.getAvailableStarts(barberId, serviceId, date);
     }
+
+    // Grelha barbeiros × dias numa só chamada; a resposta é escrita em stream, um barbeiro/dia de cada vez
+    @GetMapping("/range")
+    public ResponseEntity<StreamingResponseBody> range(@RequestParam List<Long> barberIds,
+                                                       @RequestParam Long serviceId,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        // as queries correm aqui, no pedido; o cálculo dos slots acontece durante a escrita
+        Stream<BarberDaySlots> days = availabilityService.getAvailableStartsRange(barberIds, serviceId, from, to);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                for (Iterator<BarberDaySlots> it = days.iterator(); it.hasNext(); ) {
+                    objectMapper.writeValue(gen, it.next());
+                }
+                gen.writeEndArray();
+            } finally {
+                days.close();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -15,7 +15,7 @@ public class DashboardController {
     
     @GetMapping("/statistics")
     public DashboardStats getStatistics() {
-        return dashboardService.calculateStatistics();
+        return dashboardService.getStatistics();
     }
 }
 
@@ -1,11 +1,16 @@
 package barbershopAPI.barbershopAPI.controllers;
 
+import barbershopAPI.barbershopAPI.dto.CursorPage;
+import barbershopAPI.barbershopAPI.dto.NotificationDTOs.NotificationCursor;
 import barbershopAPI.barbershopAPI.entities.Notification;
 import barbershopAPI.barbershopAPI.services.NotificationService;
+import barbershopAPI.barbershopAPI.services.NotificationStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +21,9 @@ public class NotificationController {
     
     @Autowired
     private NotificationService notificationService;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
     
     // Get all notifications
     @GetMapping
@@ -33,6 +41,15 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
     
+    // Feed paginado por cursor (mais recentes primeiro): ?cursor=<nextCursor da página anterior>
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<Notification>> getFeed(
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(notificationService.getFeed(unreadOnly, NotificationCursor.decode(cursor), limit));
+    }
+    
     // Get unread notifications
     @GetMapping("/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications() {
@@ -47,6 +64,12 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
     
+    // Stream SSE: notificações novas e número de não lidas, em vez de polling
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return notificationStreamService.subscribe();
+    }
+    
     // Get notification by ID
     @GetMapping("/{id}")
     public ResponseEntity<Notification> getNotificationById(@PathVariable Long id) {
@@ -3,6 +3,8 @@ package barbershopAPI.barbershopAPI.controllers;
 import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import barbershopAPI.barbershopAPI.services.AppointmentService.SlotConflictException;
+import barbershopAPI.barbershopAPI.services.IdempotencyService.IdempotencyKeyReusedException;
+import barbershopAPI.barbershopAPI.services.Scheduling.BookingLanes.LaneBusyException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
 import org.springframework.security.core.AuthenticationException;
@@ -24,6 +26,15 @@ public class RestExceptionHandler {
     public ResponseEntity<Map<String,Object>> handleSlot(SlotConflictException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error","CONFLICT","message", ex.getMessage()));
     }
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String,Object>> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error","IDEMPOTENCY_KEY_REUSED","message", ex.getMessage()));
+    }
+    @ExceptionHandler(LaneBusyException.class)
+    public ResponseEntity<Map<String,Object>> handleLaneBusy(LaneBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error","BUSY","message", ex.getMessage()));
+    }
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String,Object>> handleValidation(MethodArgumentNotValidException ex) {
         Map<String, String> fieldErrors = ex.getBindingResult()
@@ -0,0 +1,47 @@
+package barbershopAPI.barbershopAPI.controllers;
+
+import barbershopAPI.barbershopAPI.dto.SlotHoldDTOs.SlotHoldCreateRequest;
+import barbershopAPI.barbershopAPI.dto.SlotHoldDTOs.SlotHoldResponse;
+import barbershopAPI.barbershopAPI.entities.Client;
+import barbershopAPI.barbershopAPI.repositories.ClientRepository;
+import barbershopAPI.barbershopAPI.services.Auth.AuthenticatedClient;
+import barbershopAPI.barbershopAPI.services.SlotHoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController @RequestMapping("/slot-holds") @RequiredArgsConstructor
+public class SlotHoldController {
+    private final SlotHoldService slotHoldService;
+    private final ClientRepository clientRepo;
+
+    // Reserva o horário durante o checkout; o id vai depois no holdId do POST /appointments
+    @PostMapping
+    public SlotHoldResponse create(@Valid @RequestBody SlotHoldCreateRequest req, Authentication authentication) {
+        return slotHoldService.create(req, currentClientId(authentication));
+    }
+
+    // Desistência: liberta o horário antes de a reserva expirar
+    @DeleteMapping("/{id}")
+    public void release(@PathVariable UUID id, Authentication authentication) {
+        slotHoldService.release(id, currentClientId(authentication));
+    }
+
+    // A reserva é sempre do cliente do token, nunca de um id enviado no pedido
+    private Long currentClientId(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new BadCredentialsException("Token JWT inválido ou expirado");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedClient client) {
+            return client.id();
+        }
+        return clientRepo.findByEmailIgnoreCase(authentication.getName())
+                .map(Client::getId)
+                .orElseThrow(() -> new BadCredentialsException("Cliente não encontrado"));
+    }
+}
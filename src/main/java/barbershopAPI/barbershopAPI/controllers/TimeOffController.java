@@ -3,10 +3,13 @@ package barbershopAPI.barbershopAPI.controllers;
 import barbershopAPI.barbershopAPI.dto.TimeOffDTOs.TimeOffCreateRequest;
 import barbershopAPI.barbershopAPI.dto.TimeOffDTOs.TimeOffResponse;
 import barbershopAPI.barbershopAPI.entities.*;
+import barbershopAPI.barbershopAPI.events.TimeOffChangedEvent;
+import barbershopAPI.barbershopAPI.events.TimeOffSnapshot;
 import barbershopAPI.barbershopAPI.repositories.*;
 import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -15,11 +18,13 @@ import java.util.List;
 public class TimeOffController {
     private final TimeOffRepository repo;
     private final BarberRepository barberRepo;
+    private final ApplicationEventPublisher events;
 
     @PostMapping
     public TimeOffResponse create(@Valid @RequestBody TimeOffCreateRequest req) {
         Barber b = barberRepo.findById(req.barberId()).orElseThrow(() -> new ResourceNotFoundException("Barber not found"));
         var t = repo.save(TimeOff.builder().barber(b).startsAt(req.startsAt()).endsAt(req.endsAt()).reason(req.reason()).build());
+        events.publishEvent(new TimeOffChangedEvent(null, TimeOffSnapshot.of(t)));
         return new TimeOffResponse(t.getId(), b.getId(), t.getStartsAt(), t.getEndsAt(), t.getReason());
     }
 
@@ -32,5 +37,12 @@ public class TimeOffController {
                 .toList();
     }
 
-    @DeleteMapping("/{id}") public void delete(@PathVariable Long id) { repo.deleteById(id); }
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable Long id) {
+        repo.findById(id).ifPresent(t -> {
+            var before = TimeOffSnapshot.of(t);
+            repo.delete(t);
+            events.publishEvent(new TimeOffChangedEvent(before, null));
+        });
+    }
 }
@@ -5,11 +5,13 @@ import barbershopAPI.barbershopAPI.dto.WorkingHoursDTOs.WorkingHoursCreateReques
 import barbershopAPI.barbershopAPI.dto.WorkingHoursDTOs.WorkingHoursResponse;
 import barbershopAPI.barbershopAPI.entities.Barber;
 import barbershopAPI.barbershopAPI.entities.WorkingHours;
+import barbershopAPI.barbershopAPI.events.WorkingHoursChangedEvent;
 import barbershopAPI.barbershopAPI.repositories.BarberRepository;
 import barbershopAPI.barbershopAPI.repositories.WorkingHoursRepository;
 import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -19,6 +21,7 @@ import java.util.List;
 public class WorkingHoursController {
     private final WorkingHoursRepository repo;
     private final BarberRepository barberRepo;
+    private final ApplicationEventPublisher events;
 
     @PostMapping
     public WorkingHoursResponse create(@Valid @RequestBody WorkingHoursCreateRequest req) {
@@ -29,6 +32,7 @@ public class WorkingHoursController {
                 .startTime(LocalTime.parse(req.startTime()))
                 .endTime(LocalTime.parse(req.endTime()))
                 .build());
+        events.publishEvent(new WorkingHoursChangedEvent(b.getId()));
         return new WorkingHoursResponse(wh.getId(), b.getId(), wh.getDayOfWeek().getValue(),
                 wh.getStartTime().toString(), wh.getEndTime().toString());
     }
@@ -44,5 +48,12 @@ public class WorkingHoursController {
                 .toList();
     }
 
-    @DeleteMapping("/{id}") public void delete(@PathVariable Long id) { repo.deleteById(id); }
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable Long id) {
+        repo.findById(id).ifPresent(wh -> {
+            Long barberId = wh.getBarber().getId();
+            repo.delete(wh);
+            events.publishEvent(new WorkingHoursChangedEvent(barberId));
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posição numa listagem de marcações ordenada por (starts_at, id): a última linha da página anterior.
+ * Vai para o cliente como uma string opaca (base64url de "startsAt|id").
+ */
+public record AppointmentCursor(OffsetDateTime startsAt, UUID id) {
+
+    public static AppointmentCursor of(AppointmentResponse a) {
+        return new AppointmentCursor(a.startsAt(), a.id());
+    }
+
+    public String encode() {
+        String raw = startsAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** null ou vazio = primeira página. */
+    public static AppointmentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new AppointmentCursor(OffsetDateTime.parse(raw.substring(0, sep)),
+                    UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
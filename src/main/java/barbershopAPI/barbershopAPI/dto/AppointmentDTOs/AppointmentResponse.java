@@ -1,6 +1,8 @@
 package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
 
 
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
@@ -13,4 +15,11 @@ public record AppointmentResponse(
         OffsetDateTime endsAt,
         String status,
         String notes
-) {}
\ No newline at end of file
+) {
+    // Para as projeções JPQL (SELECT new ...), que leem o estado como enum
+    public AppointmentResponse(UUID id, Long barberId, Long serviceId, Long clientId,
+                               OffsetDateTime startsAt, OffsetDateTime endsAt,
+                               AppointmentStatus status, String notes) {
+        this(id, barberId, serviceId, clientId, startsAt, endsAt, status.name(), notes);
+    }
+}
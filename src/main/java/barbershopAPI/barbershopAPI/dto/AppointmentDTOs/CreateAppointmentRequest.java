@@ -2,11 +2,13 @@ package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
 
 import jakarta.validation.constraints.*;
 import java.time.OffsetDateTime;
+import java.util.UUID;
 
 public record CreateAppointmentRequest(
         @NotNull Long barberId,
         @NotNull Long serviceId,
         @NotNull Long clientId,
         @NotNull OffsetDateTime startsAt,
-        String notes
+        String notes,
+        UUID holdId // reserva de slot a converter nesta marcação (opcional)
 ) {}
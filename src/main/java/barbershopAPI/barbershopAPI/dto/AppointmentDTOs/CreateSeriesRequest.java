@@ -0,0 +1,15 @@
+package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
+
+import jakarta.validation.constraints.*;
+import java.time.OffsetDateTime;
+
+/** Série de marcações: {@code occurrences} vezes, a cada {@code intervalWeeks} semanas, à hora de {@code firstStartsAt}. */
+public record CreateSeriesRequest(
+        @NotNull Long barberId,
+        @NotNull Long serviceId,
+        @NotNull Long clientId,
+        @NotNull OffsetDateTime firstStartsAt,
+        @NotNull @Min(1) @Max(12) Integer intervalWeeks,
+        @NotNull @Min(1) @Max(52) Integer occurrences,
+        String notes
+) {}
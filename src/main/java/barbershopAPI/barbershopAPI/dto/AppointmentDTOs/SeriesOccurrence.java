@@ -0,0 +1,17 @@
+package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Resultado de uma ocorrência da série. status: CREATED (appointmentId preenchido),
+ * CONFLICT (outra marcação), TIME_OFF (folga) ou HELD (reservada por outro cliente).
+ */
+public record SeriesOccurrence(
+        int index,
+        OffsetDateTime startsAt,
+        OffsetDateTime endsAt,
+        String status,
+        UUID appointmentId,
+        String reason
+) {}
@@ -0,0 +1,9 @@
+package barbershopAPI.barbershopAPI.dto.AppointmentDTOs;
+
+import java.util.List;
+
+public record SeriesResponse(
+        int created,
+        int skipped,
+        List<SeriesOccurrence> occurrences
+) {}
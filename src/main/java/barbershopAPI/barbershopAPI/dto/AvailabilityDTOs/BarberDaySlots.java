@@ -0,0 +1,11 @@
+package barbershopAPI.barbershopAPI.dto.AvailabilityDTOs;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public record BarberDaySlots(
+        Long barberId,
+        LocalDate date,
+        List<OffsetDateTime> starts
+) {}
@@ -0,0 +1,21 @@
+package barbershopAPI.barbershopAPI.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem com paginação por cursor (keyset). {@code nextCursor} é null na última página;
+ * caso contrário, passa-se no pedido seguinte para continuar a seguir ao último item.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Monta a página a partir de uma query feita com limite {@code limit + 1}: a linha a mais só serve
+     * para saber se há página seguinte, sem um COUNT.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,8 @@
+package barbershopAPI.barbershopAPI.dto.DashboardDTOs;
+
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+
+import java.time.OffsetDateTime;
+
+public record RecentAppointmentRow(String clientName, String serviceName, OffsetDateTime startsAt,
+                                   AppointmentStatus status) {}
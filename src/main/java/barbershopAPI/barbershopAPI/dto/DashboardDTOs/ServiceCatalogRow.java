@@ -0,0 +1,4 @@
+package barbershopAPI.barbershopAPI.dto.DashboardDTOs;
+
+/** Nome e preço de um serviço, para o dashboard converter marcações em receita. */
+public record ServiceCatalogRow(Long id, String name, Integer priceCents) {}
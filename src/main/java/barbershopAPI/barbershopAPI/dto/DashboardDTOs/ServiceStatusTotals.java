@@ -0,0 +1,12 @@
+package barbershopAPI.barbershopAPI.dto.DashboardDTOs;
+
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+
+/** Marcações de um serviço num período, agrupadas por estado (uma linha por serviço × estado). */
+public record ServiceStatusTotals(Long serviceId, String serviceName, AppointmentStatus status,
+                                  long count, Long priceCentsSum) {
+
+    public long priceCents() {
+        return priceCentsSum == null ? 0 : priceCentsSum;
+    }
+}
@@ -0,0 +1,22 @@
+package barbershopAPI.barbershopAPI.dto.DashboardDTOs;
+
+/**
+ * Marcações não canceladas em cada um dos 7 dias a partir do início da semana
+ * ({@code day0} é o primeiro dia). As somas vêm a null quando não há nenhuma marcação.
+ */
+public record WeekDayCounts(Long day0, Long day1, Long day2, Long day3, Long day4, Long day5, Long day6) {
+
+    public int get(int i) {
+        Long v = switch (i) {
+            case 0 -> day0;
+            case 1 -> day1;
+            case 2 -> day2;
+            case 3 -> day3;
+            case 4 -> day4;
+            case 5 -> day5;
+            case 6 -> day6;
+            default -> throw new IndexOutOfBoundsException(i);
+        };
+        return v == null ? 0 : v.intValue();
+    }
+}
@@ -0,0 +1,37 @@
+package barbershopAPI.barbershopAPI.dto.NotificationDTOs;
+
+import barbershopAPI.barbershopAPI.entities.Notification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição no feed de notificações, ordenado por (created_at, id) descendente: a última linha da
+ * página anterior. Vai para o cliente como uma string opaca (base64url de "createdAt|id").
+ */
+public record NotificationCursor(LocalDateTime createdAt, Long id) {
+
+    public static NotificationCursor of(Notification n) {
+        return new NotificationCursor(n.getCreatedAt(), n.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** null ou vazio = primeira página. */
+    public static NotificationCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new NotificationCursor(LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.valueOf(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package barbershopAPI.barbershopAPI.dto.SlotHoldDTOs;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.OffsetDateTime;
+
+public record SlotHoldCreateRequest(
+        @NotNull Long barberId,
+        @NotNull Long serviceId,
+        @NotNull OffsetDateTime startsAt
+) {}
@@ -0,0 +1,13 @@
+package barbershopAPI.barbershopAPI.dto.SlotHoldDTOs;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record SlotHoldResponse(
+        UUID id,
+        Long barberId,
+        Long serviceId,
+        OffsetDateTime startsAt,
+        OffsetDateTime endsAt,
+        OffsetDateTime expiresAt
+) {}
@@ -13,7 +13,8 @@ import java.util.UUID;
 @NoArgsConstructor @AllArgsConstructor @Builder(toBuilder = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity @Table(name = "appointment", indexes = {
-        @Index(name = "idx_appointment_barber_start", columnList = "barber_id, starts_at")
+        @Index(name = "idx_appointment_barber_start", columnList = "barber_id, starts_at"),
+        @Index(name = "idx_appointment_client_start", columnList = "client_id, starts_at")
 })
 public class Appointment {
 
@@ -52,6 +53,10 @@ public class Appointment {
 
     private String notes;
 
+    /** Quando o lembrete foi reclamado/enviado; null enquanto estiver por enviar. */
+    @Column(name = "reminder_sent_at")
+    private OffsetDateTime reminderSentAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
@@ -5,6 +5,7 @@ import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.OffsetDateTime;
+import java.util.Locale;
 
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
@@ -33,6 +34,12 @@ public class Client {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    // Emails guardados sempre em minúsculas e sem espaços, como são pesquisados
+    @PrePersist @PreUpdate
+    void normalizeEmail() {
+        if (email != null) email = email.trim().toLowerCase(Locale.ROOT);
+    }
+
 
 
 
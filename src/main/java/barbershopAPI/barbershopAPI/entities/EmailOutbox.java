@@ -0,0 +1,40 @@
+package barbershopAPI.barbershopAPI.entities;
+
+import barbershopAPI.barbershopAPI.enums.EmailType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Email por enviar, escrito na mesma transação que o originou. Guarda só os dados para o
+ * montar (o HTML é gerado no envio); a linha é apagada quando o email sai.
+ */
+@Entity @Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "next_attempt_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private EmailType type;
+
+    @Column(nullable = false, length = 255) private String recipient;
+    @Column(length = 100) private String recipientName;
+    @Column(length = 1024) private String link; // contém o token: só existe até o email ser enviado ou falhar
+    @Column(name = "link_expires_at") private OffsetDateTime linkExpiresAt; // expiração do token do link
+    private UUID appointmentId;
+
+    @Builder.Default
+    @Column(nullable = false) private int attempts = 0;
+    // próxima tentativa; enquanto um envio está em curso funciona como lease
+    @Column(name = "next_attempt_at", nullable = false) private OffsetDateTime nextAttemptAt;
+    @Column(length = 1000) private String lastError;
+    private OffsetDateTime failedAt; // desistimos depois de EMAIL_OUTBOX_MAX_ATTEMPTS
+    @Column(nullable = false) private OffsetDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package barbershopAPI.barbershopAPI.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Resultado de um POST /appointments feito com Idempotency-Key: a resposta original, para a devolver
+ * tal e qual aos retries, e o hash do pedido, para recusar a mesma chave com outro conteúdo.
+ * A chave vale por cliente (client_id, idempotency_key). Pode ser apagado depois de expiresAt.
+ */
+@Entity @Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires", columnList = "expires_at")
+})
+@IdClass(IdempotencyRecord.RecordId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, length = 64) private String requestHash;
+
+    @Column(name = "appointment_id", nullable = false) private UUID appointmentId;
+    @Column(name = "barber_id", nullable = false) private Long barberId;
+    @Column(name = "service_id", nullable = false) private Long serviceId;
+    @Column(name = "starts_at", nullable = false) private OffsetDateTime startsAt;
+    @Column(name = "ends_at", nullable = false) private OffsetDateTime endsAt;
+    @Column(nullable = false, length = 20) private String status;
+    private String notes;
+
+    @Column(name = "expires_at", nullable = false) private OffsetDateTime expiresAt;
+    @Column(name = "created_at", nullable = false) private OffsetDateTime createdAt;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class RecordId implements Serializable {
+        private Long clientId;
+        private String key;
+    }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_notifications_read_created", columnList = "read_status, created_at, id")
+})
 public class Notification {
     
     @Id
@@ -0,0 +1,35 @@
+package barbershopAPI.barbershopAPI.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Reserva temporária de um intervalo na agenda de um barbeiro, enquanto o cliente conclui a marcação.
+ * A fonte de verdade durante a vida da reserva é o índice em memória; a linha serve para a
+ * recuperar depois de um restart e para outras instâncias a verem. Deixa de contar a partir de
+ * expiresAt, esteja ou não apagada.
+ */
+@Entity @Table(name = "slot_hold", indexes = {
+        @Index(name = "idx_slot_hold_barber_start", columnList = "barber_id, starts_at"),
+        @Index(name = "idx_slot_hold_expires", columnList = "expires_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SlotHold {
+    @Id
+    @GeneratedValue
+    @UuidGenerator
+    private UUID id;
+
+    @Column(nullable = false) private Long barberId;
+    @Column(nullable = false) private Long serviceId;
+    private Long clientId;
+
+    @Column(nullable = false) private OffsetDateTime startsAt;
+    @Column(nullable = false) private OffsetDateTime endsAt;
+    @Column(nullable = false) private OffsetDateTime expiresAt;
+    @Column(nullable = false) private OffsetDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package barbershopAPI.barbershopAPI.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Revogação de tokens: ou um token concreto (jti, no logout) ou todos os tokens de um utilizador
+ * emitidos antes de notBefore (mudança de password). Pode ser apagada depois de expiresAt,
+ * quando já nenhum token abrangido seria aceite de qualquer forma.
+ */
+@Entity @Table(name = "token_revocation")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TokenRevocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64) private String jti;
+    @Column(length = 255) private String subject;
+    private OffsetDateTime notBefore;
+
+    @Column(nullable = false) private OffsetDateTime expiresAt;
+    @Column(nullable = false) private OffsetDateTime createdAt;
+}
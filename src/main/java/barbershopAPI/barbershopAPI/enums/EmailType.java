@@ -0,0 +1,8 @@
+package barbershopAPI.barbershopAPI.enums;
+
+public enum EmailType {
+    APPOINTMENT_CONFIRMATION,
+    EMAIL_VERIFICATION,
+    SET_PASSWORD,
+    PASSWORD_RESET
+}
@@ -0,0 +1,7 @@
+package barbershopAPI.barbershopAPI.events;
+
+/**
+ * Publicado sempre que uma marcação é criada ou alterada.
+ * {@code before} é null numa criação.
+ */
+public record AppointmentChangedEvent(AppointmentSnapshot before, AppointmentSnapshot after) {}
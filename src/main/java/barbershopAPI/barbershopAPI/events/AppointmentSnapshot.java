@@ -0,0 +1,24 @@
+package barbershopAPI.barbershopAPI.events;
+
+import barbershopAPI.barbershopAPI.entities.Appointment;
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** Estado imutável de uma marcação num dado momento (antes/depois de uma escrita). */
+public record AppointmentSnapshot(
+        UUID id,
+        Long barberId,
+        Long serviceId,
+        Long clientId,
+        OffsetDateTime startsAt,
+        OffsetDateTime endsAt,
+        AppointmentStatus status,
+        boolean active
+) {
+    public static AppointmentSnapshot of(Appointment a) {
+        return new AppointmentSnapshot(a.getId(), a.getBarber().getId(), a.getService().getId(),
+                a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus(), a.isActive());
+    }
+}
@@ -0,0 +1,4 @@
+package barbershopAPI.barbershopAPI.events;
+
+/** Publicado quando um email é escrito no outbox; depois do commit acorda o envio. */
+public record EmailQueuedEvent(Long outboxId) {}
@@ -0,0 +1,9 @@
+package barbershopAPI.barbershopAPI.events;
+
+import barbershopAPI.barbershopAPI.entities.Notification;
+
+/**
+ * Publicado quando as notificações mudam: uma criada, ou lidas/apagadas.
+ * {@code created} é null quando só mudou o número de não lidas.
+ */
+public record NotificationsChangedEvent(Notification created) {}
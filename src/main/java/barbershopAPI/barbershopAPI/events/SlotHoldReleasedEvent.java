@@ -0,0 +1,6 @@
+package barbershopAPI.barbershopAPI.events;
+
+import java.util.UUID;
+
+/** Publicado quando uma reserva de slot é libertada ou convertida em marcação; depois do commit sai do índice. */
+public record SlotHoldReleasedEvent(UUID holdId) {}
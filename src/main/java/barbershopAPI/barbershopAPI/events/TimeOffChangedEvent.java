@@ -0,0 +1,6 @@
+package barbershopAPI.barbershopAPI.events;
+
+/**
+ * Publicado quando uma folga é criada ({@code before} null) ou apagada ({@code after} null).
+ */
+public record TimeOffChangedEvent(TimeOffSnapshot before, TimeOffSnapshot after) {}
@@ -0,0 +1,11 @@
+package barbershopAPI.barbershopAPI.events;
+
+import barbershopAPI.barbershopAPI.entities.TimeOff;
+
+import java.time.OffsetDateTime;
+
+public record TimeOffSnapshot(Long id, Long barberId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+    public static TimeOffSnapshot of(TimeOff t) {
+        return new TimeOffSnapshot(t.getId(), t.getBarber().getId(), t.getStartsAt(), t.getEndsAt());
+    }
+}
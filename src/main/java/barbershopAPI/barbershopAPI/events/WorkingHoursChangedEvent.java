@@ -0,0 +1,4 @@
+package barbershopAPI.barbershopAPI.events;
+
+/** Publicado quando os blocos de horário de um barbeiro mudam. */
+public record WorkingHoursChangedEvent(Long barberId) {}
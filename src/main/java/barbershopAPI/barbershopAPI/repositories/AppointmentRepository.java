@@ -1,8 +1,17 @@
 package barbershopAPI.barbershopAPI.repositories;
 
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse;
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.RecentAppointmentRow;
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceStatusTotals;
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.WeekDayCounts;
 import barbershopAPI.barbershopAPI.entities.Appointment;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
@@ -11,31 +20,175 @@ import java.util.*;
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, UUID> {
 
-    boolean existsByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(
-            Long barberId, OffsetDateTime end, OffsetDateTime start);
+    // Para o AvailabilityService: intervalos ocupados do barbeiro numa janela, numa só query
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(a.barber.id, a.id, a.startsAt, a.endsAt) " +
+           "FROM Appointment a " +
+           "WHERE a.barber.id = :barberId AND a.isActive = true " +
+           "AND a.startsAt < :to AND a.endsAt > :from " +
+           "ORDER BY a.startsAt")
+    List<BusyInterval> findBusyIntervals(@Param("barberId") Long barberId,
+                                         @Param("from") OffsetDateTime from,
+                                         @Param("to") OffsetDateTime to);
 
-    List<Appointment> findAllByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(
-            Long barberId, OffsetDateTime end, OffsetDateTime start);
+    // Para a disponibilidade por intervalo de datas: vários barbeiros, uma só query
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(a.barber.id, a.id, a.startsAt, a.endsAt) " +
+           "FROM Appointment a " +
+           "WHERE a.barber.id IN :barberIds AND a.isActive = true " +
+           "AND a.startsAt < :to AND a.endsAt > :from " +
+           "ORDER BY a.startsAt")
+    List<BusyInterval> findBusyIntervalsForBarbers(@Param("barberIds") Collection<Long> barberIds,
+                                                   @Param("from") OffsetDateTime from,
+                                                   @Param("to") OffsetDateTime to);
 
-    List<Appointment> findAllByBarberIdAndStartsAtBetween(
-            Long barberId, OffsetDateTime from, OffsetDateTime to);
+    // Para o BusyIntervalIndex: todas as marcações ativas do barbeiro que acabam depois de :from
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(a.barber.id, a.id, a.startsAt, a.endsAt) " +
+           "FROM Appointment a " +
+           "WHERE a.barber.id = :barberId AND a.isActive = true AND a.endsAt > :from")
+    List<BusyInterval> findBusyIntervalsEndingAfter(@Param("barberId") Long barberId,
+                                                    @Param("from") OffsetDateTime from);
 
-    List<Appointment> findAllByClientIdOrderByStartsAtDesc(Long clientId);
+    @Query("SELECT a.barber.id FROM Appointment a WHERE a.id = :id")
+    Optional<Long> findBarberIdById(@Param("id") UUID id);
 
-    // Para o scheduler de lembretes - com JOIN FETCH para evitar LazyInitializationException
+    // Listagem por barbeiro já projetada no DTO: os ids de barbeiro/serviço/cliente vêm das colunas FK,
+    // sem carregar as entidades. Ordem (starts_at, id) estável para a paginação por cursor.
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.barber.id = :barberId AND a.startsAt BETWEEN :from AND :to " +
+           "ORDER BY a.startsAt, a.id")
+    List<AppointmentResponse> findResponsesByBarber(@Param("barberId") Long barberId,
+                                                    @Param("from") OffsetDateTime from,
+                                                    @Param("to") OffsetDateTime to,
+                                                    Limit limit);
+
+    // Páginas seguintes: continua depois de (afterStartsAt, afterId), pelo índice (barber_id, starts_at)
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.barber.id = :barberId AND a.startsAt BETWEEN :from AND :to " +
+           "AND (a.startsAt > :afterStartsAt OR (a.startsAt = :afterStartsAt AND a.id > :afterId)) " +
+           "ORDER BY a.startsAt, a.id")
+    List<AppointmentResponse> findResponsesByBarberAfter(@Param("barberId") Long barberId,
+                                                         @Param("from") OffsetDateTime from,
+                                                         @Param("to") OffsetDateTime to,
+                                                         @Param("afterStartsAt") OffsetDateTime afterStartsAt,
+                                                         @Param("afterId") UUID afterId,
+                                                         Limit limit);
+
+    // Histórico de um cliente, projetado no DTO e servido pelo índice (client_id, starts_at)
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.client.id = :clientId " +
+           "ORDER BY a.startsAt DESC, a.id DESC")
+    List<AppointmentResponse> findResponsesByClient(@Param("clientId") Long clientId, Limit limit);
+
+    // Próximas marcações do cliente, da mais próxima para a mais distante
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.client.id = :clientId AND a.startsAt >= :now " +
+           "ORDER BY a.startsAt, a.id")
+    List<AppointmentResponse> findUpcomingByClient(@Param("clientId") Long clientId,
+                                                   @Param("now") OffsetDateTime now,
+                                                   Limit limit);
+
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.client.id = :clientId " +
+           "AND (a.startsAt > :afterStartsAt OR (a.startsAt = :afterStartsAt AND a.id > :afterId)) " +
+           "ORDER BY a.startsAt, a.id")
+    List<AppointmentResponse> findUpcomingByClientAfter(@Param("clientId") Long clientId,
+                                                        @Param("afterStartsAt") OffsetDateTime afterStartsAt,
+                                                        @Param("afterId") UUID afterId,
+                                                        Limit limit);
+
+    // Marcações passadas do cliente, da mais recente para a mais antiga
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.client.id = :clientId AND a.startsAt < :now " +
+           "ORDER BY a.startsAt DESC, a.id DESC")
+    List<AppointmentResponse> findPastByClient(@Param("clientId") Long clientId,
+                                               @Param("now") OffsetDateTime now,
+                                               Limit limit);
+
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse(" +
+           "a.id, a.barber.id, a.service.id, a.client.id, a.startsAt, a.endsAt, a.status, a.notes) " +
+           "FROM Appointment a " +
+           "WHERE a.client.id = :clientId " +
+           "AND (a.startsAt < :beforeStartsAt OR (a.startsAt = :beforeStartsAt AND a.id < :beforeId)) " +
+           "ORDER BY a.startsAt DESC, a.id DESC")
+    List<AppointmentResponse> findPastByClientBefore(@Param("clientId") Long clientId,
+                                                     @Param("beforeStartsAt") OffsetDateTime beforeStartsAt,
+                                                     @Param("beforeId") UUID beforeId,
+                                                     Limit limit);
+
+    // Para o scheduler de lembretes: reclama marcações sem lembrete com FOR UPDATE SKIP LOCKED,
+    // para que várias instâncias partilhem o trabalho sem enviar o mesmo lembrete duas vezes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // -2 = SKIP LOCKED
+    @Query("SELECT a FROM Appointment a " +
+           "WHERE a.isActive = true " +
+           "AND a.status = barbershopAPI.barbershopAPI.enums.AppointmentStatus.SCHEDULED " +
+           "AND a.reminderSentAt IS NULL " +
+           "AND a.startsAt BETWEEN :start AND :end " +
+           "ORDER BY a.startsAt")
+    List<Appointment> findDueRemindersForUpdate(@Param("start") OffsetDateTime startWindow,
+                                                @Param("end") OffsetDateTime endWindow,
+                                                Limit limit);
+
+    // Lembrete falhou: devolve a marcação para ser reclamada de novo
+    @Transactional
+    @Modifying
+    @Query("UPDATE Appointment a SET a.reminderSentAt = NULL WHERE a.id = :id")
+    int releaseReminder(@Param("id") UUID id);
+
+    // Para enviar os lembretes - com JOIN FETCH para evitar LazyInitializationException
     @Query("SELECT DISTINCT a FROM Appointment a " +
            "LEFT JOIN FETCH a.client " +
            "LEFT JOIN FETCH a.barber " +
            "LEFT JOIN FETCH a.service " +
-           "WHERE a.isActive = true " +
-           "AND a.startsAt BETWEEN :start AND :end")
-    List<Appointment> findAllByIsActiveTrueAndStartsAtBetween(
-            @Param("start") OffsetDateTime startWindow, 
-            @Param("end") OffsetDateTime endWindow);
-    
-    List<Appointment> findAllByStartsAtBefore(OffsetDateTime cutoffTime);
-    
-    // Para estatísticas do dashboard
-    List<Appointment> findAllByStartsAtBetween(OffsetDateTime from, OffsetDateTime to);
+           "WHERE a.id IN :ids")
+    List<Appointment> findAllWithDetailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Para estatísticas do dashboard: agregados por serviço × estado (custo proporcional ao número de grupos)
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceStatusTotals(" +
+           "s.id, s.name, a.status, COUNT(a), SUM(s.priceCents)) " +
+           "FROM Appointment a JOIN a.service s " +
+           "WHERE a.startsAt >= :from AND a.startsAt < :to " +
+           "GROUP BY s.id, s.name, a.status")
+    List<ServiceStatusTotals> countByServiceAndStatus(@Param("from") OffsetDateTime from,
+                                                      @Param("to") OffsetDateTime to);
+
+    // Marcações não canceladas em cada dia da semana; d0..d7 são as meias-noites (Lisboa) que delimitam os dias
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.DashboardDTOs.WeekDayCounts(" +
+           "SUM(CASE WHEN a.startsAt < :d1 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d1 AND a.startsAt < :d2 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d2 AND a.startsAt < :d3 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d3 AND a.startsAt < :d4 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d4 AND a.startsAt < :d5 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d5 AND a.startsAt < :d6 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.startsAt >= :d6 THEN 1 ELSE 0 END)) " +
+           "FROM Appointment a " +
+           "WHERE a.startsAt >= :d0 AND a.startsAt < :d7 " +
+           "AND a.status <> barbershopAPI.barbershopAPI.enums.AppointmentStatus.CANCELLED")
+    WeekDayCounts countPerDay(@Param("d0") OffsetDateTime d0, @Param("d1") OffsetDateTime d1,
+                              @Param("d2") OffsetDateTime d2, @Param("d3") OffsetDateTime d3,
+                              @Param("d4") OffsetDateTime d4, @Param("d5") OffsetDateTime d5,
+                              @Param("d6") OffsetDateTime d6, @Param("d7") OffsetDateTime d7);
+
+    // Primeiras marcações não canceladas de um período, com nomes de cliente e serviço já resolvidos
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.DashboardDTOs.RecentAppointmentRow(" +
+           "c.name, s.name, a.startsAt, a.status) " +
+           "FROM Appointment a JOIN a.client c JOIN a.service s " +
+           "WHERE a.startsAt >= :from AND a.startsAt < :to " +
+           "AND a.status <> barbershopAPI.barbershopAPI.enums.AppointmentStatus.CANCELLED " +
+           "ORDER BY a.startsAt")
+    List<RecentAppointmentRow> findFirstRows(@Param("from") OffsetDateTime from,
+                                             @Param("to") OffsetDateTime to,
+                                             Limit limit);
 
 }
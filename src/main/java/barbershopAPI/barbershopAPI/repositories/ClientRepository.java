@@ -1,12 +1,28 @@
 package barbershopAPI.barbershopAPI.repositories;
 
 import barbershopAPI.barbershopAPI.entities.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByEmail(String email);
-    Optional<Client> findByEmailIgnoreCase(String email);
+
+    // lower() explícito dos dois lados, para usar o índice idx_client_email_lower
+    // (o IgnoreCase derivado gera upper(), que não o usa); o parâmetro é normalizado como os
+    // emails guardados, sem espaços à volta.
+    // O índice não é único: o V13 deixou como estavam os clientes cujo email só difere em
+    // maiúsculas. Nesse caso a pesquisa devolve sempre o mesmo, o que tem senha e, entre esses,
+    // o mais antigo, em vez de falhar por encontrar mais do que um
+    default Optional<Client> findByEmailIgnoreCase(String email) {
+        return findFirstByEmailIgnoreCase(email, Limit.of(1));
+    }
+
+    @Query("SELECT c FROM Client c WHERE lower(c.email) = lower(trim(:email)) " +
+           "ORDER BY CASE WHEN c.password IS NULL THEN 1 ELSE 0 END, c.id")
+    Optional<Client> findFirstByEmailIgnoreCase(@Param("email") String email, Limit limit);
 
 }
@@ -0,0 +1,38 @@
+package barbershopAPI.barbershopAPI.repositories;
+
+import barbershopAPI.barbershopAPI.entities.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Emails com tentativa vencida, bloqueados para este worker; os já reclamados por outra instância são saltados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // -2 = SKIP LOCKED
+    @Query("SELECT e FROM EmailOutbox e " +
+           "WHERE e.failedAt IS NULL AND e.nextAttemptAt <= :now " +
+           "AND (e.linkExpiresAt IS NULL OR e.linkExpiresAt > :now) " +
+           "ORDER BY e.nextAttemptAt")
+    List<EmailOutbox> findDueForUpdate(@Param("now") OffsetDateTime now, Limit limit);
+
+    // Links cujo token já expirou: o email deixa de fazer sentido e o token não fica guardado
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.link = NULL, e.failedAt = :now, e.lastError = 'Link expirado antes do envio' " +
+           "WHERE e.link IS NOT NULL AND e.failedAt IS NULL AND e.linkExpiresAt < :now")
+    int expireLinks(@Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.failedAt < :cutoff")
+    int deleteFailedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
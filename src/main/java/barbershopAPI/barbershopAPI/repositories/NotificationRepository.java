@@ -1,6 +1,7 @@
 package barbershopAPI.barbershopAPI.repositories;
 
 import barbershopAPI.barbershopAPI.entities.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -43,7 +44,26 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("DELETE FROM Notification n WHERE n.createdAt < :cutoffDate")
     int deleteOldNotifications(@Param("cutoffDate") LocalDateTime cutoffDate);
     
-    // Find notifications with pagination
-    @Query("SELECT n FROM Notification n ORDER BY n.createdAt DESC")
-    List<Notification> findNotificationsWithPagination(org.springframework.data.domain.Pageable pageable);
+    // Primeira página do feed, mais recentes primeiro; índice (created_at, id)
+    @Query("SELECT n FROM Notification n ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatest(Limit limit);
+
+    // Páginas seguintes: continua antes de (beforeCreatedAt, beforeId)
+    @Query("SELECT n FROM Notification n " +
+           "WHERE n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatestBefore(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                        @Param("beforeId") Long beforeId,
+                                        Limit limit);
+
+    // O mesmo só para as não lidas; índice (read_status, created_at, id)
+    @Query("SELECT n FROM Notification n WHERE n.readStatus = false ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatestUnread(Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.readStatus = false " +
+           "AND (n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findLatestUnreadBefore(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              Limit limit);
 }
@@ -1,6 +1,18 @@
 package barbershopAPI.barbershopAPI.repositories;
 
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceCatalogRow;
 import barbershopAPI.barbershopAPI.entities.ServiceEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface ServiceRepository extends JpaRepository<ServiceEntity, Long> {}
\ No newline at end of file
+import java.util.List;
+
+public interface ServiceRepository extends JpaRepository<ServiceEntity, Long> {
+
+    long countByIsActiveTrue();
+
+    // Para o dashboard: só id, nome e preço de cada serviço
+    @Query("SELECT new barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceCatalogRow(s.id, s.name, s.priceCents) " +
+           "FROM ServiceEntity s")
+    List<ServiceCatalogRow> findCatalog();
+}
@@ -0,0 +1,46 @@
+package barbershopAPI.barbershopAPI.repositories;
+
+import barbershopAPI.barbershopAPI.entities.SlotHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SlotHoldRepository extends JpaRepository<SlotHold, UUID> {
+
+    // Reservas em vigor (para reconstruir o índice em memória no arranque)
+    List<SlotHold> findAllByExpiresAtAfter(OffsetDateTime now);
+
+    // Reservas em vigor de outras instâncias que se sobrepõem a [start, end)
+    @Query("SELECT COUNT(h) > 0 FROM SlotHold h " +
+           "WHERE h.barberId = :barberId AND h.expiresAt > :now " +
+           "AND h.startsAt < :end AND h.endsAt > :start")
+    boolean existsActiveOverlap(@Param("barberId") Long barberId,
+                                @Param("start") OffsetDateTime start,
+                                @Param("end") OffsetDateTime end,
+                                @Param("now") OffsetDateTime now);
+
+    // Reservas em vigor, de qualquer instância, dos barbeiros que se sobrepõem a [start, end)
+    @Query("SELECT h FROM SlotHold h " +
+           "WHERE h.barberId IN :barberIds AND h.expiresAt > :now " +
+           "AND h.startsAt < :end AND h.endsAt > :start")
+    List<SlotHold> findActiveOverlapping(@Param("barberIds") Collection<Long> barberIds,
+                                         @Param("start") OffsetDateTime start,
+                                         @Param("end") OffsetDateTime end,
+                                         @Param("now") OffsetDateTime now);
+
+    // Reservas em vigor de um cliente, em todas as instâncias
+    @Query("SELECT COUNT(h) FROM SlotHold h WHERE h.clientId = :clientId AND h.expiresAt > :now")
+    long countActiveByClient(@Param("clientId") Long clientId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
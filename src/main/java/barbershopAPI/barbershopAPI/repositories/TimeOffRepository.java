@@ -1,8 +1,11 @@
 package barbershopAPI.barbershopAPI.repositories;
 
 import barbershopAPI.barbershopAPI.entities.TimeOff;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TimeOffRepository extends JpaRepository<TimeOff, Long> {
@@ -11,11 +14,28 @@ public interface TimeOffRepository extends JpaRepository<TimeOff, Long> {
     List<TimeOff> findAllByBarberIdAndStartsAtBetweenOrderByStartsAtAsc(
             Long barberId, OffsetDateTime from, OffsetDateTime to);
 
-    // usado no AvailabilityService: verificar overlap (startsAt < end && endsAt > start)
-    boolean existsByBarberIdAndStartsAtLessThanAndEndsAtGreaterThan(
-            Long barberId, OffsetDateTime end, OffsetDateTime start);
-    
-    // usado no AppointmentService: listar time-offs que sobrepõem com o período
-    List<TimeOff> findAllByBarberIdAndStartsAtLessThanAndEndsAtGreaterThan(
-            Long barberId, OffsetDateTime end, OffsetDateTime start);
+    // usado no AvailabilityService: todas as folgas que tocam a janela, numa só query
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(t.barber.id, t.id, t.startsAt, t.endsAt) " +
+           "FROM TimeOff t " +
+           "WHERE t.barber.id = :barberId AND t.startsAt < :to AND t.endsAt > :from " +
+           "ORDER BY t.startsAt")
+    List<BusyInterval> findBusyIntervals(@Param("barberId") Long barberId,
+                                         @Param("from") OffsetDateTime from,
+                                         @Param("to") OffsetDateTime to);
+
+    // usado na disponibilidade por intervalo de datas: vários barbeiros, uma só query
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(t.barber.id, t.id, t.startsAt, t.endsAt) " +
+           "FROM TimeOff t " +
+           "WHERE t.barber.id IN :barberIds AND t.startsAt < :to AND t.endsAt > :from " +
+           "ORDER BY t.startsAt")
+    List<BusyInterval> findBusyIntervalsForBarbers(@Param("barberIds") Collection<Long> barberIds,
+                                                   @Param("from") OffsetDateTime from,
+                                                   @Param("to") OffsetDateTime to);
+
+    // usado no BusyIntervalIndex: todas as folgas do barbeiro que acabam depois de :from
+    @Query("SELECT new barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval(t.barber.id, t.id, t.startsAt, t.endsAt) " +
+           "FROM TimeOff t " +
+           "WHERE t.barber.id = :barberId AND t.endsAt > :from")
+    List<BusyInterval> findBusyIntervalsEndingAfter(@Param("barberId") Long barberId,
+                                                    @Param("from") OffsetDateTime from);
 }
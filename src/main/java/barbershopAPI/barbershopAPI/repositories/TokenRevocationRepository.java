@@ -0,0 +1,24 @@
+package barbershopAPI.barbershopAPI.repositories;
+
+import barbershopAPI.barbershopAPI.entities.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Sincronização incremental: só as revogações criadas desde a última leitura e ainda em vigor
+    List<TokenRevocation> findAllByCreatedAtAfterAndExpiresAtAfter(OffsetDateTime since, OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
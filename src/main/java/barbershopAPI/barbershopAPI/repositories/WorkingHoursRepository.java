@@ -4,6 +4,7 @@ import barbershopAPI.barbershopAPI.entities.WorkingHours;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -12,6 +13,9 @@ public interface WorkingHoursRepository extends JpaRepository<WorkingHours, Long
     // listar todos os horários de um barbeiro, ordenados por dia e hora
     List<WorkingHours> findByBarber_IdOrderByDayOfWeekAscStartTimeAsc(Long barberId);
 
+    // horários de vários barbeiros de uma vez (disponibilidade por intervalo de datas)
+    List<WorkingHours> findByBarber_IdInOrderByStartTimeAsc(Collection<Long> barberIds);
+
     // horários de UM dia específico, ordenados por hora
     List<WorkingHours> findByBarber_IdAndDayOfWeekOrderByStartTimeAsc(Long barberId, DayOfWeek dayOfWeek);
 }
\ No newline at end of file
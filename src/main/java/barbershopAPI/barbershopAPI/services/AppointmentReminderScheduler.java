@@ -1,18 +1,19 @@
 package barbershopAPI.barbershopAPI.services;
 
 import barbershopAPI.barbershopAPI.entities.Appointment;
-import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
 import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -22,15 +23,20 @@ public class AppointmentReminderScheduler {
 
     private final AppointmentRepository appointmentRepository;
     private final EmailService emailService;
-    
-    // Set para rastrear IDs de marcações que já receberam lembrete
-    private final Set<UUID> remindersSent = new HashSet<>();
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${REMINDER_BATCH_SIZE:100}")
+    private int batchSize;
     
     private static final ZoneId LISBON_ZONE = ZoneId.of("Europe/Lisbon");
     
     /**
      * Executa a cada 5 minutos para verificar marcações que precisam de lembrete
      * Cron: segundo minuto hora dia mês dia-da-semana
+     *
+     * Cada marcação é reclamada na base de dados (reminder_sent_at) antes do envio, com
+     * FOR UPDATE SKIP LOCKED: várias instâncias podem correr em simultâneo sem duplicar
+     * lembretes, e um restart não volta a enviar os que já saíram.
      */
     @Scheduled(cron = "0 */5 * * * *") // A cada 5 minutos
     public void checkAndSendReminders() {
@@ -43,88 +49,55 @@ public class AppointmentReminderScheduler {
             OffsetDateTime endWindow = now.plusMinutes(65);
             
             log.debug("Verificando marcações entre {} e {}", startWindow, endWindow);
-            
-            // Buscar marcações ativas que começam nesta janela de tempo
-            List<Appointment> upcomingAppointments = appointmentRepository
-                .findAllByIsActiveTrueAndStartsAtBetween(startWindow, endWindow);
-            
-            log.info("Encontradas {} marcação(ões) para lembrete", upcomingAppointments.size());
-            
-            for (Appointment appointment : upcomingAppointments) {
-                // Verificar se já enviamos lembrete para esta marcação
-                if (remindersSent.contains(appointment.getId())) {
-                    log.debug("Lembrete já enviado para marcação {}", appointment.getId());
-                    continue;
-                }
-                
-                // Verificar se a marcação está em estado válido para lembrete
-                // Só envia para marcações ativas (não canceladas, não completadas)
-                if (appointment.getStatus() == AppointmentStatus.CANCELLED || 
-                    appointment.getStatus() == AppointmentStatus.COMPLETED ||
-                    appointment.getStatus() == AppointmentStatus.NO_SHOW) {
-                    log.debug("Marcação {} em estado {} - não enviando lembrete", 
-                             appointment.getId(), appointment.getStatus());
-                    continue;
-                }
-                
-                // Verificar se o cliente tem email
-                if (appointment.getClient() == null || 
-                    appointment.getClient().getEmail() == null || 
-                    appointment.getClient().getEmail().isBlank()) {
-                    log.warn("Marcação {} não tem email válido do cliente", appointment.getId());
-                    continue;
-                }
-                
-                try {
-                    // Enviar lembrete
-                    emailService.sendAppointmentReminder(appointment);
-                    
-                    // Marcar como enviado
-                    remindersSent.add(appointment.getId());
-                    
-                    log.info("✅ Lembrete enviado com sucesso para {} (Marcação: {})", 
-                             appointment.getClient().getEmail(), 
-                             appointment.getId());
-                             
-                } catch (Exception e) {
-                    log.error("❌ Erro ao enviar lembrete para marcação {}: {}", 
-                             appointment.getId(), 
-                             e.getMessage(), e);
+
+            List<UUID> failed = new ArrayList<>();
+            List<UUID> claimed;
+            do {
+                claimed = claim(startWindow, endWindow, now);
+                if (!claimed.isEmpty()) {
+                    log.info("Reclamadas {} marcação(ões) para lembrete", claimed.size());
+                    failed.addAll(send(claimed));
                 }
-            }
-            
-            // Limpar cache de lembretes enviados (marcações de mais de 2 horas atrás)
-            cleanupOldReminders(now);
+            } while (claimed.size() == batchSize);
+
+            // Devolver as que falharam só no fim, para a próxima execução (e não esta) tentar de novo
+            failed.forEach(appointmentRepository::releaseReminder);
             
         } catch (Exception e) {
             log.error("Erro no scheduler de lembretes: {}", e.getMessage(), e);
         }
     }
-    
-    /**
-     * Remove do cache marcações antigas para evitar crescimento infinito
-     */
-    private void cleanupOldReminders(OffsetDateTime now) {
-        OffsetDateTime twoHoursAgo = now.minusHours(2);
-        
-        // Buscar IDs de marcações antigas que ainda estão no cache
-        List<UUID> oldAppointmentIds = appointmentRepository
-            .findAllByStartsAtBefore(twoHoursAgo)
-            .stream()
-            .map(Appointment::getId)
-            .toList();
-        
-        // Remover do cache
-        int removed = 0;
-        for (UUID id : oldAppointmentIds) {
-            if (remindersSent.remove(id)) {
-                removed++;
+
+    // Marca um lote como enviado numa transação curta; as linhas já reclamadas por outra instância são saltadas
+    private List<UUID> claim(OffsetDateTime startWindow, OffsetDateTime endWindow, OffsetDateTime now) {
+        return transactionTemplate.execute(status -> {
+            List<Appointment> due = appointmentRepository
+                    .findDueRemindersForUpdate(startWindow, endWindow, Limit.of(batchSize));
+            due.forEach(a -> a.setReminderSentAt(now));
+            return due.stream().map(Appointment::getId).toList();
+        });
+    }
+
+    private List<UUID> send(List<UUID> claimed) {
+        List<UUID> failed = new ArrayList<>();
+        for (Appointment appointment : appointmentRepository.findAllWithDetailsByIdIn(claimed)) {
+            // Verificar se o cliente tem email (fica marcada: não há para onde enviar)
+            if (appointment.getClient() == null || 
+                appointment.getClient().getEmail() == null || 
+                appointment.getClient().getEmail().isBlank()) {
+                log.warn("Marcação {} não tem email válido do cliente", appointment.getId());
+                continue;
+            }
+
+            if (emailService.sendAppointmentReminder(appointment)) {
+                log.info("✅ Lembrete enviado com sucesso para {} (Marcação: {})", 
+                         appointment.getClient().getEmail(), 
+                         appointment.getId());
+            } else {
+                failed.add(appointment.getId());
+                log.error("❌ Erro ao enviar lembrete para marcação {}; será tentado de novo", appointment.getId());
             }
         }
-        
-        if (removed > 0) {
-            log.debug("Removidas {} marcações antigas do cache de lembretes", removed);
-        }
+        return failed;
     }
 }
-
@@ -1,34 +1,111 @@
 package barbershopAPI.barbershopAPI.services;
 import barbershopAPI.barbershopAPI.entities.*;
 import barbershopAPI.barbershopAPI.repositories.*;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentCursor;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateAppointmentRequest;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateSeriesRequest;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.SeriesOccurrence;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.SeriesResponse;
 import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.UpdateAppointmentRequest;
+import barbershopAPI.barbershopAPI.dto.CursorPage;
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.events.AppointmentChangedEvent;
+import barbershopAPI.barbershopAPI.events.AppointmentSnapshot;
 import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
 import barbershopAPI.barbershopAPI.services.NotificationService;
+import barbershopAPI.barbershopAPI.services.Scheduling.BookingLanes;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyIntervalIndex;
+import barbershopAPI.barbershopAPI.services.Scheduling.SlotHoldIndex.Hold;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
-    private final Mailer mailer;
+    private final EmailOutboxService emailOutbox;
     private final AppointmentRepository appointmentRepo;
     private final BarberRepository barberRepo;
     private final ServiceRepository serviceRepo;
     private final ClientRepository clientRepo;
     private final TimeOffRepository timeOffRepo;
     private final NotificationService notificationService;
+    private final BusyIntervalIndex busyIndex;
+    private final ApplicationEventPublisher events;
+    private final BookingLanes lanes;
+    private final SlotHoldService slotHolds;
+    private final IdempotencyService idempotency;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    private static final int MAX_PAGE_SIZE = 200;
+    // as séries repetem a hora local: "às 10:00" continua às 10:00 depois da mudança de hora
+    private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+
+    /**
+     * Cria a marcação na vez do barbeiro: a transação corre dentro do lock, por isso pedidos
+     * concorrentes para o mesmo barbeiro são verificados um a seguir ao outro.
+     */
     public AppointmentResponse create(CreateAppointmentRequest req) {
+        return create(req, null);
+    }
+
+    /**
+     * Como {@link #create(CreateAppointmentRequest)}; {@code callerId} é o cliente autenticado, o único
+     * que pode consumir a reserva de horário do pedido (holdId).
+     */
+    public AppointmentResponse create(CreateAppointmentRequest req, Long callerId) {
+        return lanes.run(req.barberId(), () -> transactionTemplate.execute(status -> doCreate(req, callerId)));
+    }
+
+    /**
+     * Como {@link #create(CreateAppointmentRequest, Long)}, mas com Idempotency-Key: se a chave já tiver
+     * resposta para este cliente, devolve-a sem voltar a marcar. A chave é verificada outra vez dentro da vez do
+     * barbeiro, por isso um retry que chegue enquanto o original ainda corre espera por ele e
+     * recebe a mesma resposta.
+     */
+    public AppointmentResponse create(CreateAppointmentRequest req, Long callerId, String idempotencyKey) {
+        if (idempotencyKey == null) return create(req, callerId);
+        IdempotencyService.validateKey(idempotencyKey);
+        String hash = IdempotencyService.hash(req);
+        return idempotency.find(req.clientId(), idempotencyKey, hash).orElseGet(() -> lanes.run(req.barberId(), () -> {
+            var previous = idempotency.find(req.clientId(), idempotencyKey, hash);
+            if (previous.isPresent()) return previous.get();
+            AppointmentResponse created;
+            try {
+                created = transactionTemplate.execute(status -> {
+                    AppointmentResponse r = doCreate(req, callerId);
+                    idempotency.record(req.clientId(), idempotencyKey, hash, r);
+                    return r;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // outra instância gravou a mesma chave entretanto: a marcação desta foi desfeita
+                return idempotency.find(req.clientId(), idempotencyKey, hash)
+                        .orElseThrow(() -> new SlotConflictException("Slot já ocupado para este barbeiro"));
+            }
+            idempotency.remember(req.clientId(), idempotencyKey, hash, created);
+            return created;
+        }));
+    }
+
+    private AppointmentResponse doCreate(CreateAppointmentRequest req, Long callerId) {
         var barber  = barberRepo.findById(req.barberId()).orElseThrow();
         var service = serviceRepo.findById(req.serviceId()).orElseThrow();
         var client  = clientRepo.findById(req.clientId()).orElseThrow();
@@ -37,14 +114,15 @@ public class AppointmentService {
         OffsetDateTime startsAt = req.startsAt();
         OffsetDateTime endsAt   = startsAt.plusMinutes(mins);
 
-        // pré-checagem rápida de conflito (melhor UX)
-        boolean busy = appointmentRepo.existsByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(barber.getId(), startsAt, endsAt);
-        if (busy) throw new SlotConflictException("Slot já ocupado para este barbeiro");
-        
-        // Verificar se o barbeiro está de folga neste período
-        if (isBarberOnTimeOff(barber.getId(), startsAt, endsAt)) {
-            throw new TimeOffConflictException("O barbeiro está de folga neste período");
+        // a reserva do cliente autenticado (se a trouxer) é consumida e não conta como conflito
+        if (req.holdId() != null && callerId == null) {
+            throw new IllegalStateException("Só um cliente autenticado pode usar uma reserva de horário");
         }
+        UUID ownHold = req.holdId() == null ? null
+                : slotHolds.consume(req.holdId(), callerId, barber.getId(), startsAt).id();
+
+        // pré-checagem rápida de conflito (melhor UX), contra a árvore de intervalos em memória
+        assertSlotFree(barber.getId(), startsAt, endsAt, null, ownHold);
 
         var appt = Appointment.builder()
                 .barber(barber)
@@ -60,11 +138,11 @@ public class AppointmentService {
         } catch (DataIntegrityViolationException e) {
             throw new SlotConflictException("Slot já ocupado para este barbeiro");
         }
+        events.publishEvent(new AppointmentChangedEvent(null, AppointmentSnapshot.of(appt)));
 
-        try {
-            mailer.sendAppointmentConfirmation(client.getEmail(), appt, service, barber);
-        } catch (Exception ex) {
-            log.warn("Falha ao enviar email de confirmação para {} (appt {}).", client.getEmail(), appt.getId(), ex);
+        // email de confirmação no outbox, na mesma transação da marcação
+        if (client.getEmail() != null && !client.getEmail().isBlank()) {
+            emailOutbox.enqueueAppointmentConfirmation(client.getEmail(), appt.getId());
         }
 
         // Create notification for new appointment
@@ -87,15 +165,121 @@ public class AppointmentService {
         );
     }
 
-    @Transactional
+    /**
+     * Cria uma série de marcações (ex.: a cada 3 semanas às 10:00 com o mesmo barbeiro). As ocorrências
+     * são verificadas todas de uma vez contra marcações e folgas, com uma query por tabela para o
+     * período inteiro, e as livres são inseridas em batch. As que colidem não fazem falhar a série:
+     * voltam no relatório com o motivo.
+     */
+    public SeriesResponse createSeries(CreateSeriesRequest req) {
+        return lanes.run(req.barberId(), () -> transactionTemplate.execute(status -> doCreateSeries(req)));
+    }
+
+    private SeriesResponse doCreateSeries(CreateSeriesRequest req) {
+        var barber  = barberRepo.findById(req.barberId()).orElseThrow();
+        var service = serviceRepo.findById(req.serviceId()).orElseThrow();
+        var client  = clientRepo.findById(req.clientId()).orElseThrow();
+
+        int mins = service.getDurationMin() + (service.getBufferAfterMin() == null ? 0 : service.getBufferAfterMin());
+        ZonedDateTime first = req.firstStartsAt().atZoneSameInstant(TZ);
+        List<OffsetDateTime> starts = new ArrayList<>(req.occurrences());
+        for (int i = 0; i < req.occurrences(); i++) {
+            starts.add(first.plusWeeks((long) i * req.intervalWeeks()).toOffsetDateTime());
+        }
+        OffsetDateTime from = starts.get(0);
+        OffsetDateTime to = starts.get(starts.size() - 1).plusMinutes(mins);
+
+        List<BusyInterval> busy = BusyInterval.mergeSorted(
+                appointmentRepo.findBusyIntervals(barber.getId(), from, to),
+                timeOffRepo.findBusyIntervals(barber.getId(), from, to));
+        List<Hold> held = slotHolds.activeOverlapping(List.of(barber.getId()), from, to)
+                .getOrDefault(barber.getId(), List.of());
+
+        // varrimento único: as ocorrências e os intervalos ocupados vêm ambos por ordem de início;
+        // um intervalo que acaba antes de uma ocorrência começar já não toca nas seguintes
+        List<SeriesOccurrence> report = new ArrayList<>(starts.size());
+        List<Appointment> toInsert = new ArrayList<>();
+        List<Integer> insertedAt = new ArrayList<>();
+        LinkedList<BusyInterval> open = new LinkedList<>();
+        int next = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            OffsetDateTime startsAt = starts.get(i);
+            OffsetDateTime endsAt = startsAt.plusMinutes(mins);
+            while (next < busy.size() && busy.get(next).start().isBefore(endsAt)) open.add(busy.get(next++));
+            open.removeIf(b -> !b.end().isAfter(startsAt));
+
+            String conflict = null, reason = null;
+            if (open.stream().anyMatch(b -> !b.isTimeOff() && b.overlaps(startsAt, endsAt))) {
+                conflict = "CONFLICT";
+                reason = "Slot já ocupado para este barbeiro";
+            } else if (open.stream().anyMatch(b -> b.isTimeOff() && b.overlaps(startsAt, endsAt))) {
+                conflict = "TIME_OFF";
+                reason = "O barbeiro está de folga neste período";
+            } else if (held.stream().anyMatch(h -> h.overlaps(startsAt, endsAt))) {
+                conflict = "HELD";
+                reason = "Horário reservado temporariamente por outro cliente";
+            }
+            if (conflict != null) {
+                report.add(new SeriesOccurrence(i, startsAt, endsAt, conflict, null, reason));
+                continue;
+            }
+            report.add(null); // preenchido depois do insert, com o id
+            insertedAt.add(i);
+            toInsert.add(Appointment.builder()
+                    .barber(barber)
+                    .service(service)
+                    .client(client)
+                    .startsAt(startsAt)
+                    .endsAt(endsAt)
+                    .notes(req.notes())
+                    .build());
+        }
+
+        List<Appointment> saved;
+        try {
+            // ids gerados em memória (@UuidGenerator), por isso os INSERT seguem em batch no flush
+            saved = appointmentRepo.saveAllAndFlush(toInsert);
+        } catch (DataIntegrityViolationException e) {
+            throw new SlotConflictException("Slot já ocupado para este barbeiro");
+        }
+        for (int k = 0; k < saved.size(); k++) {
+            Appointment appt = saved.get(k);
+            int i = insertedAt.get(k);
+            report.set(i, new SeriesOccurrence(i, appt.getStartsAt(), appt.getEndsAt(), "CREATED", appt.getId(), null));
+            events.publishEvent(new AppointmentChangedEvent(null, AppointmentSnapshot.of(appt)));
+        }
+
+        if (!saved.isEmpty()) {
+            // uma confirmação e uma notificação pela série, não uma por ocorrência
+            Appointment firstAppt = saved.get(0);
+            if (client.getEmail() != null && !client.getEmail().isBlank()) {
+                emailOutbox.enqueueAppointmentConfirmation(client.getEmail(), firstAppt.getId());
+            }
+            try {
+                String timeStr = firstAppt.getStartsAt().toLocalTime().toString();
+                notificationService.notifyNewAppointment(client.getName(), barber.getName(), timeStr);
+            } catch (Exception ex) {
+                log.warn("Falha ao criar notificação para nova série {}: {}", firstAppt.getId(), ex.getMessage());
+            }
+        }
+        return new SeriesResponse(saved.size(), starts.size() - saved.size(), report);
+    }
+
+    /** Altera a marcação na vez do barbeiro atual e, se mudar de barbeiro, também na do novo. */
     public AppointmentResponse update(java.util.UUID id, UpdateAppointmentRequest req) {
-        var appt = appointmentRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+        Long barberId = currentBarberId(id);
+        return lanes.run(Arrays.asList(barberId, req.barberId()),
+                () -> transactionTemplate.execute(status -> doUpdate(id, req, barberId)));
+    }
+
+    private AppointmentResponse doUpdate(UUID id, UpdateAppointmentRequest req, Long lockedBarberId) {
+        var appt = lockedAppointment(id, lockedBarberId);
 
         // Se o appointment já foi cancelado, não permitir edição
         if (appt.getStatus() == barbershopAPI.barbershopAPI.enums.AppointmentStatus.CANCELLED) {
             throw new IllegalStateException("Cannot update a cancelled appointment");
         }
+        var before = AppointmentSnapshot.of(appt);
 
         boolean changed = false;
 
@@ -127,27 +311,8 @@ public class AppointmentService {
             OffsetDateTime newStartsAt = req.startsAt();
             OffsetDateTime newEndsAt = newStartsAt.plusMinutes(mins);
 
-            // Verificar conflito (excluindo o próprio appointment)
-            boolean busy = appointmentRepo.existsByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(
-                    appt.getBarber().getId(), newStartsAt, newEndsAt);
-            
-            if (busy) {
-                // Verificar se o conflito não é com o próprio appointment
-                var conflicting = appointmentRepo.findAllByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(
-                        appt.getBarber().getId(), newEndsAt, newStartsAt);
-                
-                boolean hasRealConflict = conflicting.stream()
-                        .anyMatch(a -> !a.getId().equals(id));
-                
-                if (hasRealConflict) {
-                    throw new SlotConflictException("Slot já ocupado para este barbeiro");
-                }
-            }
-            
-            // Verificar se o barbeiro está de folga no novo período
-            if (isBarberOnTimeOff(appt.getBarber().getId(), newStartsAt, newEndsAt)) {
-                throw new TimeOffConflictException("O barbeiro está de folga neste período");
-            }
+            // Verificar conflito (excluindo o próprio appointment) e folgas no novo período
+            assertSlotFree(appt.getBarber().getId(), newStartsAt, newEndsAt, id, null);
 
             appt.setStartsAt(newStartsAt);
             appt.setEndsAt(newEndsAt);
@@ -166,6 +331,7 @@ public class AppointmentService {
             } catch (DataIntegrityViolationException e) {
                 throw new SlotConflictException("Slot já ocupado para este barbeiro");
             }
+            events.publishEvent(new AppointmentChangedEvent(before, AppointmentSnapshot.of(appt)));
         }
 
         return new AppointmentResponse(
@@ -180,13 +346,151 @@ public class AppointmentService {
         );
     }
 
+    public AppointmentResponse cancel(UUID id) {
+        Long barberId = currentBarberId(id);
+        return lanes.run(barberId, () -> transactionTemplate.execute(status -> {
+            Appointment a = lockedAppointment(id, barberId);
+            var before = AppointmentSnapshot.of(a);
+            a.setStatus(AppointmentStatus.CANCELLED);
+            a.setActive(false);
+            a = appointmentRepo.save(a);
+            events.publishEvent(new AppointmentChangedEvent(before, AppointmentSnapshot.of(a)));
+
+            // Create notification for cancelled appointment
+            try {
+                String timeStr = a.getStartsAt().toLocalTime().toString();
+                notificationService.notifyAppointmentCancelled(a.getClient().getName(), timeStr);
+            } catch (Exception ex) {
+                log.warn("Falha ao criar notificação para cancelamento {}: {}", id, ex.getMessage());
+            }
+            return toResponse(a);
+        }));
+    }
+
+    public AppointmentResponse updateStatus(UUID id, String status) {
+        AppointmentStatus newStatus;
+        try {
+            newStatus = AppointmentStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status. Valid values: SCHEDULED, CANCELLED, COMPLETED, NO_SHOW");
+        }
+        Long barberId = currentBarberId(id);
+        return lanes.run(barberId, () -> transactionTemplate.execute(tx -> {
+            Appointment a = lockedAppointment(id, barberId);
+            var before = AppointmentSnapshot.of(a);
+            a.setStatus(newStatus);
+
+            // Se cancelar, desativar
+            if (newStatus == AppointmentStatus.CANCELLED) {
+                a.setActive(false);
+            }
+
+            a = appointmentRepo.save(a);
+            events.publishEvent(new AppointmentChangedEvent(before, AppointmentSnapshot.of(a)));
+
+            // Create notification based on status change
+            try {
+                String timeStr = a.getStartsAt().toLocalTime().toString();
+                if (newStatus == AppointmentStatus.SCHEDULED) {
+                    notificationService.notifyAppointmentConfirmed(a.getClient().getName(), timeStr);
+                } else if (newStatus == AppointmentStatus.CANCELLED) {
+                    notificationService.notifyAppointmentCancelled(a.getClient().getName(), timeStr);
+                }
+            } catch (Exception ex) {
+                log.warn("Falha ao criar notificação para mudança de status {}: {}", id, ex.getMessage());
+            }
+            return toResponse(a);
+        }));
+    }
+
+    // Barbeiro atual da marcação, para saber que vez pedir antes de abrir a transação
+    private Long currentBarberId(UUID id) {
+        return appointmentRepo.findBarberIdById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+    }
+
+    // Já dentro do lock: se entretanto a marcação mudou de barbeiro, o lock que temos não é o certo
+    private Appointment lockedAppointment(UUID id, Long lockedBarberId) {
+        Appointment a = appointmentRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+        if (!a.getBarber().getId().equals(lockedBarberId)) {
+            throw new BookingLanes.LaneBusyException("A marcação foi alterada entretanto, tente novamente");
+        }
+        return a;
+    }
+
+    private static AppointmentResponse toResponse(Appointment a) {
+        return new AppointmentResponse(a.getId(), a.getBarber().getId(), a.getService().getId(),
+                a.getClient().getId(), a.getStartsAt(), a.getEndsAt(), a.getStatus().name(), a.getNotes());
+    }
+
+    /**
+     * Marcações de um barbeiro entre {@code from} e {@code to}, paginadas por (starts_at, id).
+     * Com {@code after} null devolve a primeira página; o cursor seguinte é a última linha devolvida.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> listForBarber(Long barberId, OffsetDateTime from, OffsetDateTime to,
+                                                         AppointmentCursor after, int limit) {
+        int size = pageSize(limit);
+        List<AppointmentResponse> rows = after == null
+                ? appointmentRepo.findResponsesByBarber(barberId, from, to, Limit.of(size + 1))
+                : appointmentRepo.findResponsesByBarberAfter(barberId, from, to,
+                        after.startsAt(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size, a -> AppointmentCursor.of(a).encode());
+    }
+
+    /** Todas as marcações do cliente, da mais recente para a mais antiga (o /appointments/my). */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> historyForClient(Long clientId, AppointmentCursor before, int limit) {
+        int size = pageSize(limit);
+        List<AppointmentResponse> rows = before == null
+                ? appointmentRepo.findResponsesByClient(clientId, Limit.of(size + 1))
+                : appointmentRepo.findPastByClientBefore(clientId, before.startsAt(), before.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size, a -> AppointmentCursor.of(a).encode());
+    }
+
+    /** Próximas marcações do cliente (a começar agora ou depois), por ordem cronológica. */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> upcomingForClient(Long clientId, AppointmentCursor after, int limit) {
+        int size = pageSize(limit);
+        List<AppointmentResponse> rows = after == null
+                ? appointmentRepo.findUpcomingByClient(clientId, OffsetDateTime.now(), Limit.of(size + 1))
+                : appointmentRepo.findUpcomingByClientAfter(clientId, after.startsAt(), after.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size, a -> AppointmentCursor.of(a).encode());
+    }
+
+    /** Marcações já passadas do cliente, da mais recente para a mais antiga. */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> pastForClient(Long clientId, AppointmentCursor before, int limit) {
+        int size = pageSize(limit);
+        List<AppointmentResponse> rows = before == null
+                ? appointmentRepo.findPastByClient(clientId, OffsetDateTime.now(), Limit.of(size + 1))
+                : appointmentRepo.findPastByClientBefore(clientId, before.startsAt(), before.id(), Limit.of(size + 1));
+        return CursorPage.of(rows, size, a -> AppointmentCursor.of(a).encode());
+    }
+
+    private static int pageSize(int requested) {
+        if (requested < 1) throw new IllegalArgumentException("limit tem de ser positivo");
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
     /**
-     * Verifica se o barbeiro está de folga no período especificado
+     * Verifica se [startsAt, endsAt) está livre na agenda do barbeiro: primeiro contra outras
+     * marcações (ignorando {@code ignoreId}), depois contra folgas e por fim contra reservas de
+     * slots de outros clientes (ignorando {@code ignoreHoldId}).
      */
-    private boolean isBarberOnTimeOff(Long barberId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
-        var timeOffs = timeOffRepo.findAllByBarberIdAndStartsAtLessThanAndEndsAtGreaterThan(
-                barberId, endsAt, startsAt);
-        return !timeOffs.isEmpty();
+    private void assertSlotFree(Long barberId, OffsetDateTime startsAt, OffsetDateTime endsAt,
+                                UUID ignoreId, UUID ignoreHoldId) {
+        List<BusyInterval> overlapping = busyIndex.overlapping(barberId, startsAt, endsAt);
+        if (overlapping.stream().anyMatch(b -> !b.isTimeOff() && !b.id().equals(ignoreId))) {
+            throw new SlotConflictException("Slot já ocupado para este barbeiro");
+        }
+        if (overlapping.stream().anyMatch(BusyInterval::isTimeOff)) {
+            throw new TimeOffConflictException("O barbeiro está de folga neste período");
+        }
+        if (slotHolds.isHeld(barberId, startsAt, endsAt, ignoreHoldId)) {
+            throw new SlotConflictException("Horário reservado temporariamente por outro cliente");
+        }
     }
 
     public static class SlotConflictException extends RuntimeException {
@@ -40,7 +40,7 @@ public class AuthService {
     }
 
     public LoginResponse login(LoginRequest req) {
-        Client c = clients.findByEmail(req.email())
+        Client c = clients.findByEmailIgnoreCase(req.email())
                 .orElseThrow(() -> new RuntimeException("Credenciais inválidas"));
 
         String stored = c.getPassword();
@@ -0,0 +1,14 @@
+package barbershopAPI.barbershopAPI.services.Auth;
+
+import java.security.Principal;
+
+/**
+ * Principal dos pedidos autenticados com um token que já traz o id do cliente nas claims:
+ * construído só a partir do JWT verificado, sem ir à base de dados.
+ */
+public record AuthenticatedClient(Long id, String email) implements Principal {
+    @Override
+    public String getName() {
+        return email;
+    }
+}
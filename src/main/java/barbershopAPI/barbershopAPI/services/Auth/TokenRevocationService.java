@@ -0,0 +1,119 @@
+package barbershopAPI.barbershopAPI.services.Auth;
+
+import barbershopAPI.barbershopAPI.entities.TokenRevocation;
+import barbershopAPI.barbershopAPI.repositories.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de revogação dos JWT. A verificação por pedido é só em memória; a tabela token_revocation
+ * torna as revogações duráveis e partilhadas entre instâncias, que a sincronizam periodicamente
+ * (as revogações feitas nesta instância valem logo).
+ *
+ * Dois tipos: um token concreto pelo jti (logout) e todos os tokens de um utilizador emitidos
+ * antes de um instante (mudança de password). O iat do JWT tem resolução de segundos, por isso
+ * o notBefore é truncado ao segundo: um token emitido no mesmo segundo da revogação continua válido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository repository;
+
+    @Value("${JWT_REFRESH_EXPIRATION:604800000}")
+    private long refreshExpiration;
+
+    private final Map<String, Instant> revokedIds = new ConcurrentHashMap<>();  // jti -> expiração do token
+    private final Map<String, Instant> notBefore = new ConcurrentHashMap<>();   // email -> emitidos antes são inválidos
+    // última sincronização; cada leitura volta um pouco atrás para apanhar transações que fizeram commit tarde
+    private volatile OffsetDateTime lastSync; // null = ainda não carregou
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && revokedIds.containsKey(jti)) return true;
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAt == null || claims.getSubject() == null) return false;
+        Instant limit = notBefore.get(key(claims.getSubject()));
+        return limit != null && issuedAt.toInstant().isBefore(limit);
+    }
+
+    /** Revoga este token até expirar; tokens antigos sem jti revogam todas as sessões do utilizador. */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            revokeAllFor(claims.getSubject());
+            return;
+        }
+        Instant expiresAt = claims.getExpiration().toInstant();
+        revokedIds.put(claims.getId(), expiresAt);
+        save(TokenRevocation.builder().jti(claims.getId()).expiresAt(utc(expiresAt)));
+    }
+
+    /** Invalida todos os tokens já emitidos para o utilizador (ex.: depois de mudar a password). */
+    public void revokeAllFor(String email) {
+        if (email == null) return;
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        notBefore.merge(key(email), now, (a, b) -> a.isAfter(b) ? a : b);
+        // basta guardar enquanto o token mais longo (refresh) emitido antes ainda podia ser usado
+        save(TokenRevocation.builder().subject(key(email)).notBefore(utc(now))
+                .expiresAt(utc(now.plusMillis(refreshExpiration))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${JWT_REVOCATION_SYNC_MS:30000}", initialDelayString = "${JWT_REVOCATION_SYNC_MS:30000}")
+    public void sync() {
+        try {
+            var now = OffsetDateTime.now(ZoneOffset.UTC);
+            var since = lastSync == null ? utc(Instant.EPOCH) : lastSync.minusSeconds(SYNC_OVERLAP_SECONDS);
+            repository.findAllByCreatedAtAfterAndExpiresAtAfter(since, now).forEach(this::apply);
+            lastSync = now;
+            Instant cutoff = now.toInstant();
+            revokedIds.values().removeIf(exp -> exp.isBefore(cutoff));
+            notBefore.values().removeIf(nb -> nb.plusMillis(refreshExpiration).isBefore(cutoff));
+        } catch (Exception e) {
+            log.warn("Falha ao sincronizar revogações de tokens: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 17 * * * *")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(OffsetDateTime.now(ZoneOffset.UTC));
+        if (removed > 0) log.debug("Removidas {} revogações de tokens expiradas", removed);
+    }
+
+    private void apply(TokenRevocation r) {
+        if (r.getJti() != null) {
+            revokedIds.put(r.getJti(), r.getExpiresAt().toInstant());
+        } else if (r.getSubject() != null && r.getNotBefore() != null) {
+            notBefore.merge(r.getSubject(), r.getNotBefore().toInstant(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    private void save(TokenRevocation.TokenRevocationBuilder builder) {
+        repository.save(builder.createdAt(OffsetDateTime.now(ZoneOffset.UTC)).build());
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
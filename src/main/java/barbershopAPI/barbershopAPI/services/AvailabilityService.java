@@ -1,12 +1,13 @@
 package barbershopAPI.barbershopAPI.services;
 
+import barbershopAPI.barbershopAPI.dto.AvailabilityDTOs.BarberDaySlots;
 import barbershopAPI.barbershopAPI.entities.ServiceEntity;
-import barbershopAPI.barbershopAPI.entities.WorkingHours;
 
-import barbershopAPI.barbershopAPI.repositories.WorkingHoursRepository;
-import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
-import barbershopAPI.barbershopAPI.repositories.TimeOffRepository;
 import barbershopAPI.barbershopAPI.repositories.ServiceRepository;
+import barbershopAPI.barbershopAPI.services.Scheduling.DaySchedule;
+import barbershopAPI.barbershopAPI.services.Scheduling.ScheduleCache;
+import barbershopAPI.barbershopAPI.services.Scheduling.SlotHoldIndex;
+import barbershopAPI.barbershopAPI.services.Scheduling.SlotHoldIndex.Hold;
 
 
 
@@ -14,53 +15,78 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AvailabilityService {
 
-    private final WorkingHoursRepository workingHoursRepo;
-    private final AppointmentRepository appointmentRepo;
-    private final TimeOffRepository timeOffRepo;
     private final ServiceRepository serviceRepo;
+    private final ScheduleCache scheduleCache;
+    private final SlotHoldService slotHolds;
 
     private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
-    private static final int STEP_MIN = 15;
+
+    private static final int MAX_RANGE_DAYS = 62;
+    private static final int MAX_RANGE_BARBERS = 50;
 
     public List<OffsetDateTime> getAvailableStarts(Long barberId, Long serviceId, LocalDate day) {
         ServiceEntity service = serviceRepo.findById(serviceId).orElseThrow();
-        int buffer = service.getBufferAfterMin() == null ? 0 : service.getBufferAfterMin();
-        int neededMin = service.getDurationMin() + buffer;
-        Duration needed = Duration.ofMinutes(neededMin);
-
-        List<WorkingHours> whs = workingHoursRepo.findByBarber_IdAndDayOfWeekOrderByStartTimeAsc(barberId, day.getDayOfWeek());
-        List<OffsetDateTime> slots = new ArrayList<>();
-        ZonedDateTime nowLisbon = ZonedDateTime.now(TZ);
-
-        for (WorkingHours wh : whs) {
-            ZonedDateTime blockStart = day.atTime(wh.getStartTime()).atZone(TZ);
-            ZonedDateTime blockEnd   = day.atTime(wh.getEndTime()).atZone(TZ);
-
-            ZonedDateTime cand = blockStart;
-            int mod = cand.getMinute() % STEP_MIN;
-            if (mod != 0) cand = cand.plusMinutes(STEP_MIN - mod);
-
-            for (; !cand.plus(needed).isAfter(blockEnd); cand = cand.plusMinutes(STEP_MIN)) {
-                if (cand.isBefore(nowLisbon)) continue;
+        Duration needed = neededFor(service);
+
+        // Horários, marcações e folgas do dia vêm da cache (uma leitura à base de dados por barbeiro/dia);
+        // os inícios saem do índice de granulos do dia, sem aritmética de datas por candidato
+        DaySchedule schedule = scheduleCache.get(barberId, day);
+        List<OffsetDateTime> starts = schedule.index().starts(needed.toMillis(), System.currentTimeMillis(), TZ);
+        if (starts.isEmpty()) return starts;
+        // horários reservados temporariamente por outros clientes, nesta ou noutra instância, contam como ocupados
+        List<Hold> held = slotHolds.activeOverlapping(List.of(barberId), starts.get(0),
+                starts.get(starts.size() - 1).plus(needed)).getOrDefault(barberId, List.of());
+        return SlotHoldIndex.withoutHeld(held, starts, needed.toMillis());
+    }
 
-                OffsetDateTime s = cand.toOffsetDateTime();
-                OffsetDateTime e = cand.plus(needed).toOffsetDateTime();
+    /**
+     * Disponibilidade de vários barbeiros num intervalo de datas (inclusive).
+     * A agenda de todo o intervalo é obtida aqui (os dias que não estão em cache são lidos
+     * em bloco, num número constante de queries); os slots de cada barbeiro/dia só são
+     * calculados à medida que o stream é consumido.
+     */
+    public Stream<BarberDaySlots> getAvailableStartsRange(Collection<Long> barberIds, Long serviceId,
+                                                          LocalDate fromDay, LocalDate toDay) {
+        if (toDay.isBefore(fromDay)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(fromDay, toDay) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        Set<Long> barbers = new LinkedHashSet<>(barberIds);
+        if (barbers.isEmpty() || barbers.size() > MAX_RANGE_BARBERS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_RANGE_BARBERS + " barbers must be requested");
+        }
 
-                boolean busy =
-                        appointmentRepo.existsByBarberIdAndIsActiveTrueAndStartsAtLessThanAndEndsAtGreaterThan(barberId, e, s)
-                                || timeOffRepo.existsByBarberIdAndStartsAtLessThanAndEndsAtGreaterThan(barberId, e, s);
+        ServiceEntity service = serviceRepo.findById(serviceId).orElseThrow();
+        Duration needed = neededFor(service);
+
+        Map<ScheduleCache.Key, DaySchedule> schedules = scheduleCache.getAll(barbers, fromDay, toDay);
+        long neededMs = needed.toMillis();
+        long nowMs = System.currentTimeMillis();
+        List<LocalDate> days = fromDay.datesUntil(toDay.plusDays(1)).toList();
+        // reservas de slots de todos os barbeiros no intervalo, numa query
+        Map<Long, List<Hold>> held = slotHolds.activeOverlapping(barbers,
+                fromDay.atStartOfDay(TZ).toOffsetDateTime(),
+                toDay.plusDays(1).atStartOfDay(TZ).toOffsetDateTime().plus(needed));
+
+        return barbers.stream().flatMap(barberId -> days.stream().map(day -> {
+            DaySchedule schedule = schedules.get(new ScheduleCache.Key(barberId, day));
+            List<OffsetDateTime> starts = schedule.index().starts(neededMs, nowMs, TZ);
+            return new BarberDaySlots(barberId, day, SlotHoldIndex.withoutHeld(held.getOrDefault(barberId, List.of()), starts, neededMs));
+        }));
+    }
 
-                if (!busy) slots.add(s);
-            }
-        }
-        return slots.stream().sorted().collect(Collectors.toList());
+    private static Duration neededFor(ServiceEntity service) {
+        int buffer = service.getBufferAfterMin() == null ? 0 : service.getBufferAfterMin();
+        return Duration.ofMinutes(service.getDurationMin() + buffer);
     }
 }
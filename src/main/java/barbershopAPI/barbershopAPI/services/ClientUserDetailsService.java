@@ -16,6 +16,9 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class ClientUserDetailsService implements UserDetailsService {
 
+    /** Papel de todos os clientes; vai também nas claims do JWT. */
+    public static final String DEFAULT_ROLE = "ROLE_USER";
+
     private final ClientRepository clientRepository;
 
     @Override
@@ -26,7 +29,7 @@ public class ClientUserDetailsService implements UserDetailsService {
         return new User(
                 client.getEmail(),
                 client.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                Collections.singletonList(new SimpleGrantedAuthority(DEFAULT_ROLE))
         );
     }
 }
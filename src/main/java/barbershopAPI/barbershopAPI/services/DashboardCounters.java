@@ -0,0 +1,119 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.dto.DashboardStats;
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.events.AppointmentSnapshot;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Agregados do dashboard mantidos em memória: contagens da semana por dia, total e receita do
+ * mês, e popularidade por serviço. Cada marcação contribui conforme o seu estado e data; uma
+ * alteração é aplicada retirando a contribuição do estado anterior e somando a do novo.
+ * Não é thread-safe: o {@link DashboardService} acede sempre com o mesmo lock.
+ */
+final class DashboardCounters {
+
+    private static final String[] DAY_NAMES = {"Seg", "Ter", "Qua", "Qui", "Sex", "Sáb", "Dom"};
+
+    /** Preço e nome de um serviço, para converter marcações em receita. */
+    record ServiceInfo(String name, long priceCents) {}
+
+    private static final class ServiceCounter {
+        long count;
+        long revenueCents;
+    }
+
+    final LocalDate today;
+    final LocalDate weekStart;
+    final LocalDate monthStart;
+    private final ZoneId zone;
+    private final Map<Long, ServiceInfo> catalog;
+
+    private final int[] week = new int[7]; // índice = dias desde weekStart
+    private long monthTotal;
+    private final Map<Long, ServiceCounter> services = new HashMap<>();
+    int totalClients;
+    int activeServices;
+    List<DashboardStats.RecentAppointment> recent = List.of();
+
+    DashboardCounters(LocalDate today, LocalDate weekStart, ZoneId zone, Map<Long, ServiceInfo> catalog) {
+        this.today = today;
+        this.weekStart = weekStart;
+        this.monthStart = today.withDayOfMonth(1);
+        this.zone = zone;
+        this.catalog = catalog;
+    }
+
+    boolean knows(Long serviceId) {
+        return catalog.containsKey(serviceId);
+    }
+
+    void addWeekDay(int offset, int count) {
+        week[offset] += count;
+    }
+
+    void addMonth(Long serviceId, AppointmentStatus status, long count, long revenueCents) {
+        monthTotal += count;
+        if (status != AppointmentStatus.CANCELLED) {
+            ServiceCounter c = services.computeIfAbsent(serviceId, k -> new ServiceCounter());
+            c.count += count;
+            if (countsAsRevenue(status)) c.revenueCents += revenueCents;
+        }
+    }
+
+    /** Soma (sign = 1) ou retira (sign = -1) a contribuição de uma marcação. */
+    void apply(AppointmentSnapshot a, int sign) {
+        if (a == null) return;
+        LocalDate day = a.startsAt().atZoneSameInstant(zone).toLocalDate();
+        if (a.status() != AppointmentStatus.CANCELLED) {
+            int offset = (int) (day.toEpochDay() - weekStart.toEpochDay());
+            if (offset >= 0 && offset < 7) week[offset] += sign;
+        }
+        if (!day.isBefore(monthStart) && day.isBefore(monthStart.plusMonths(1))) {
+            long price = countsAsRevenue(a.status()) ? catalog.get(a.serviceId()).priceCents() : 0;
+            addMonth(a.serviceId(), a.status(), sign, sign * price);
+        }
+    }
+
+    boolean touchesToday(AppointmentSnapshot a) {
+        return a != null && a.startsAt().atZoneSameInstant(zone).toLocalDate().equals(today);
+    }
+
+    DashboardStats toStats() {
+        DashboardStats stats = new DashboardStats();
+        int[] byDayOfWeek = new int[7]; // 0 = Segunda
+        for (int i = 0; i < 7; i++) {
+            LocalDate d = weekStart.plusDays(i);
+            byDayOfWeek[d.getDayOfWeek().getValue() - 1] = week[i];
+            if (d.equals(today)) stats.setTodayAppointments(week[i]);
+        }
+        List<DashboardStats.WeekDayStats> weekStats = new ArrayList<>(7);
+        for (int i = 0; i < 7; i++) {
+            weekStats.add(new DashboardStats.WeekDayStats(DAY_NAMES[i], byDayOfWeek[i]));
+        }
+        stats.setWeekStats(weekStats);
+        stats.setTotalClients(totalClients);
+        stats.setActiveServices(activeServices);
+        stats.setTotalAppointments((int) monthTotal);
+        stats.setMonthlyRevenue(services.values().stream().mapToLong(c -> c.revenueCents).sum() / 100.0);
+        stats.setPopularServices(services.entrySet().stream()
+                .filter(e -> e.getValue().count > 0)
+                .map(e -> new DashboardStats.ServicePopularity(
+                        catalog.get(e.getKey()).name(),
+                        e.getValue().count,
+                        e.getValue().revenueCents / 100.0))
+                .sorted(Comparator.comparing(DashboardStats.ServicePopularity::getCount).reversed())
+                .collect(Collectors.toList()));
+        stats.setRecentAppointments(recent);
+        return stats;
+    }
+
+    // Receita conta apenas marcações agendadas e completadas
+    static boolean countsAsRevenue(AppointmentStatus status) {
+        return status == AppointmentStatus.SCHEDULED || status == AppointmentStatus.COMPLETED;
+    }
+}
@@ -1,173 +1,214 @@
 package barbershopAPI.barbershopAPI.services;
 
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceCatalogRow;
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.ServiceStatusTotals;
+import barbershopAPI.barbershopAPI.dto.DashboardDTOs.WeekDayCounts;
 import barbershopAPI.barbershopAPI.dto.DashboardStats;
-import barbershopAPI.barbershopAPI.entities.Appointment;
-import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.events.AppointmentChangedEvent;
 import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
 import barbershopAPI.barbershopAPI.repositories.ClientRepository;
 import barbershopAPI.barbershopAPI.repositories.ServiceRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
-import java.time.format.TextStyle;
 import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Estatísticas do dashboard. O GET lê um snapshot já calculado; o snapshot é atualizado por
+ * cada marcação criada, cancelada ou alterada (depois do commit) e reconciliado periodicamente
+ * com a base de dados, o que também apanha clientes e serviços novos e a mudança de dia.
+ *
+ * As queries correm sempre fora do lock: o listener corre dentro da vez do barbeiro (BookingLanes),
+ * e um lock global à volta de uma query atrasaria as marcações de todos os barbeiros.
+ * Uma reconciliação só substitui os contadores se nenhuma marcação tiver feito commit enquanto
+ * carregava; senão a leitura pode já incluir uma marcação cujo evento ainda vai ser aplicado
+ * (e seria contada duas vezes), e os contadores atuais, que recebem esses eventos, ficam.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
     private final AppointmentRepository appointmentRepository;
     private final ClientRepository clientRepository;
     private final ServiceRepository serviceRepository;
-    
+
+    private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
-    
+    private static final int RECENT_LIMIT = 5;
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final Object lock = new Object();
+    private DashboardCounters counters; // protegido por lock
+    private volatile DashboardStats snapshot;
+
+    // commits de marcações já iniciados, e os que ainda não terminaram (ver onAppointmentCommitting)
+    private final AtomicLong commitsStarted = new AtomicLong();
+    private final AtomicInteger commitsInFlight = new AtomicInteger();
+    // ordem das leituras da lista de hoje, para uma leitura mais antiga não substituir uma mais recente
+    private final AtomicLong recentReads = new AtomicLong();
+    private long recentInstalled; // protegido por lock
+
+    /** Snapshot atual; só vai à base de dados no primeiro pedido ou quando o dia mudou. */
+    public DashboardStats getStatistics() {
+        DashboardStats current = snapshot;
+        if (current != null && isCurrent()) return current;
+        reconcile();
+        return snapshot;
+    }
+
+    /** Recalcula tudo a partir da base de dados (queries agregadas) e substitui o snapshot. */
+    @Scheduled(fixedDelayString = "${DASHBOARD_RECONCILE_MS:300000}", initialDelayString = "${DASHBOARD_RECONCILE_MS:300000}")
+    @Scheduled(cron = "0 0 0 * * *", zone = "Europe/Lisbon")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            // por esta ordem: um commit já contado em started também já está em commitsInFlight
+            long started = commitsStarted.get();
+            boolean quiet = commitsInFlight.get() == 0;
+            long recentRead = recentReads.incrementAndGet();
+            DashboardCounters loaded = load();
+            synchronized (lock) {
+                boolean consistent = quiet && commitsStarted.get() == started;
+                // sem contadores nenhuns, ou o dia mudou, mais vale um valor quase certo do que nenhum
+                if (consistent || (attempt == RECONCILE_ATTEMPTS && !isCurrent())) {
+                    counters = loaded;
+                    recentInstalled = recentRead;
+                    snapshot = counters.toStats();
+                    return;
+                }
+            }
+        }
+        log.debug("Reconciliação do dashboard adiada: marcações a fazer commit durante a leitura");
+    }
+
+    /**
+     * Antes do commit de cada escrita numa marcação: a partir daqui a escrita pode já aparecer
+     * numa leitura da reconciliação, mas o evento só é aplicado depois do commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAppointmentCommitting(AppointmentChangedEvent event) {
+        commitsInFlight.incrementAndGet();
+        commitsStarted.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // corre depois dos listeners AFTER_COMMIT, por isso o evento já foi aplicado
+                commitsInFlight.decrementAndGet();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        LocalDate today;
+        synchronized (lock) {
+            // ainda sem snapshot, ou o dia mudou: o próximo pedido reconcilia
+            if (counters == null || !isCurrent()) return;
+            var before = event.before();
+            var after = event.after();
+            if ((before != null && !counters.knows(before.serviceId()))
+                    || (after != null && !counters.knows(after.serviceId()))) {
+                // serviço novo: o próximo pedido recarrega tudo
+                counters = null;
+                snapshot = null;
+                return;
+            }
+            counters.apply(before, -1);
+            counters.apply(after, 1);
+            snapshot = counters.toStats();
+            if (!counters.touchesToday(before) && !counters.touchesToday(after)) return;
+            today = counters.today;
+        }
+
+        // a lista de hoje vem da base de dados: fora do lock
+        try {
+            long read = recentReads.incrementAndGet();
+            var recent = recentToday(today);
+            synchronized (lock) {
+                if (counters == null || !counters.today.equals(today) || read < recentInstalled) return;
+                recentInstalled = read;
+                counters.recent = recent;
+                snapshot = counters.toStats();
+            }
+        } catch (Exception e) {
+            // nunca falhar a escrita por causa do dashboard; a próxima reconciliação corrige
+            log.warn("Falha ao atualizar as marcações de hoje do dashboard: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Estatísticas calculadas diretamente da base de dados a partir de queries agregadas
+     * (GROUP BY / SUM), sem carregar as marcações do mês.
+     */
     @Transactional(readOnly = true)
     public DashboardStats calculateStatistics() {
-        DashboardStats stats = new DashboardStats();
-        
-        // Definir período: mês atual
-        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Europe/Lisbon"));
-        ZonedDateTime startOfMonth = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        ZonedDateTime endOfMonth = now.withDayOfMonth(now.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
-        
-        // Definir período: hoje
-        ZonedDateTime startOfToday = now.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        ZonedDateTime endOfToday = now.withHour(23).withMinute(59).withSecond(59);
-        
-        // Definir período: esta semana
-        ZonedDateTime startOfWeek = now.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1)
-                .withHour(0).withMinute(0).withSecond(0).withNano(0);
-        ZonedDateTime endOfWeek = now.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 7)
-                .withHour(23).withMinute(59).withSecond(59);
-        
-        // Buscar todas as marcações do mês
-        List<Appointment> monthAppointments = appointmentRepository
-                .findAllByStartsAtBetween(startOfMonth.toOffsetDateTime(), endOfMonth.toOffsetDateTime());
-        
-        // Buscar marcações de hoje
-        List<Appointment> todayAppointments = monthAppointments.stream()
-                .filter(a -> !a.getStartsAt().isBefore(startOfToday.toOffsetDateTime()) 
-                          && !a.getStartsAt().isAfter(endOfToday.toOffsetDateTime()))
-                .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
-                .toList();
-        
-        // Buscar marcações da semana
-        List<Appointment> weekAppointments = monthAppointments.stream()
-                .filter(a -> !a.getStartsAt().isBefore(startOfWeek.toOffsetDateTime()) 
-                          && !a.getStartsAt().isAfter(endOfWeek.toOffsetDateTime()))
-                .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
-                .toList();
-        
-        // 1. Marcações de hoje
-        stats.setTodayAppointments(todayAppointments.size());
-        
-        // 2. Total de clientes
-        stats.setTotalClients((int) clientRepository.count());
-        
-        // 3. Receita mensal (apenas agendadas e completadas)
-        double monthlyRevenue = monthAppointments.stream()
-                .filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED 
-                          || a.getStatus() == AppointmentStatus.COMPLETED)
-                .mapToDouble(a -> a.getService().getPriceCents() / 100.0)
-                .sum();
-        stats.setMonthlyRevenue(monthlyRevenue);
-        
-        // 4. Serviços ativos
-        stats.setActiveServices((int) serviceRepository.findAll().stream()
-                .filter(barbershopAPI.barbershopAPI.entities.ServiceEntity::isActive)
-                .count());
-        
-        // 5. Total de marcações do mês
-        stats.setTotalAppointments(monthAppointments.size());
-        
-        // 6. Estatísticas por dia da semana
-        List<DashboardStats.WeekDayStats> weekStats = calculateWeekStats(weekAppointments, startOfWeek);
-        stats.setWeekStats(weekStats);
-        
-        // 7. Serviços mais populares
-        List<DashboardStats.ServicePopularity> popularServices = calculatePopularServices(monthAppointments);
-        stats.setPopularServices(popularServices);
-        
-        // 8. Marcações recentes de hoje (últimas 5)
-        List<DashboardStats.RecentAppointment> recentAppointments = todayAppointments.stream()
-                .sorted(Comparator.comparing(Appointment::getStartsAt))
-                .limit(5)
-                .map(a -> new DashboardStats.RecentAppointment(
-                        a.getClient().getName(),
-                        a.getService().getName(),
-                        a.getStartsAt().toLocalTime().format(TIME_FORMATTER),
-                        a.getStatus().name()
-                ))
-                .collect(Collectors.toList());
-        stats.setRecentAppointments(recentAppointments);
-        
-        return stats;
+        return load().toStats();
     }
-    
-    private List<DashboardStats.WeekDayStats> calculateWeekStats(List<Appointment> weekAppointments, ZonedDateTime startOfWeek) {
-        // Criar mapa de contagem por dia
-        Map<Integer, Integer> appointmentsByDay = new HashMap<>();
-        for (int i = 0; i < 7; i++) {
-            appointmentsByDay.put(i, 0);
-        }
-        
-        // Contar marcações por dia
-        for (Appointment appointment : weekAppointments) {
-            ZonedDateTime appointmentDate = appointment.getStartsAt().atZoneSameInstant(ZoneId.of("Europe/Lisbon"));
-            int dayOfWeek = appointmentDate.getDayOfWeek().getValue() - 1; // 0 = Segunda
-            appointmentsByDay.merge(dayOfWeek, 1, Integer::sum);
+
+    private DashboardCounters load() {
+        // Definir períodos: mês atual, hoje e esta semana (meias-noites de Lisboa, fim exclusivo)
+        LocalDate today = LocalDate.now(TZ);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        LocalDate startOfWeek = today.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1);
+
+        Map<Long, DashboardCounters.ServiceInfo> catalog = new HashMap<>();
+        for (ServiceCatalogRow s : serviceRepository.findCatalog()) {
+            catalog.put(s.id(), new DashboardCounters.ServiceInfo(s.name(),
+                    s.priceCents() == null ? 0 : s.priceCents()));
         }
-        
-        // Criar lista de stats
-        List<DashboardStats.WeekDayStats> weekStats = new ArrayList<>();
-        String[] dayNames = {"Seg", "Ter", "Qua", "Qui", "Sex", "Sáb", "Dom"};
-        
-        for (int i = 0; i < 7; i++) {
-            weekStats.add(new DashboardStats.WeekDayStats(
-                    dayNames[i],
-                    appointmentsByDay.get(i)
-            ));
+        DashboardCounters c = new DashboardCounters(today, startOfWeek, TZ, catalog);
+
+        // Marcações por dia da semana (uma só query)
+        OffsetDateTime[] bounds = new OffsetDateTime[8];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = midnight(startOfWeek.plusDays(i));
+        WeekDayCounts perDay = appointmentRepository.countPerDay(
+                bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5], bounds[6], bounds[7]);
+        for (int i = 0; i < 7; i++) c.addWeekDay(i, perDay.get(i));
+
+        // Total, receita e popularidade do mês a partir dos agregados serviço × estado
+        for (ServiceStatusTotals row : appointmentRepository
+                .countByServiceAndStatus(midnight(startOfMonth), midnight(startOfMonth.plusMonths(1)))) {
+            c.addMonth(row.serviceId(), row.status(), row.count(), row.priceCents());
         }
-        
-        return weekStats;
+
+        c.totalClients = (int) clientRepository.count();
+        c.activeServices = (int) serviceRepository.countByIsActiveTrue();
+        c.recent = recentToday(today);
+        return c;
     }
-    
-    private List<DashboardStats.ServicePopularity> calculatePopularServices(List<Appointment> appointments) {
-        // Agrupar por serviço
-        Map<Long, List<Appointment>> appointmentsByService = appointments.stream()
-                .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
-                .collect(Collectors.groupingBy(a -> a.getService().getId()));
-        
-        // Calcular popularidade e receita
-        return appointmentsByService.entrySet().stream()
-                .map(entry -> {
-                    List<Appointment> serviceAppointments = entry.getValue();
-                    if (serviceAppointments.isEmpty()) {
-                        return null;
-                    }
-                    
-                    barbershopAPI.barbershopAPI.entities.ServiceEntity service = serviceAppointments.get(0).getService();
-                    long count = serviceAppointments.size();
-                    double revenue = serviceAppointments.stream()
-                            .filter(a -> a.getStatus() == AppointmentStatus.SCHEDULED 
-                                      || a.getStatus() == AppointmentStatus.COMPLETED)
-                            .mapToDouble(a -> a.getService().getPriceCents() / 100.0)
-                            .sum();
-                    
-                    return new DashboardStats.ServicePopularity(
-                            service.getName(),
-                            count,
-                            revenue
-                    );
-                })
-                .filter(Objects::nonNull)
-                .sorted(Comparator.comparing(DashboardStats.ServicePopularity::getCount).reversed())
+
+    // Marcações de hoje (primeiras 5), já com nomes de cliente e serviço
+    private List<DashboardStats.RecentAppointment> recentToday(LocalDate today) {
+        return appointmentRepository
+                .findFirstRows(midnight(today), midnight(today.plusDays(1)), Limit.of(RECENT_LIMIT)).stream()
+                .map(r -> new DashboardStats.RecentAppointment(
+                        r.clientName(),
+                        r.serviceName(),
+                        r.startsAt().toLocalTime().format(TIME_FORMATTER),
+                        r.status().name()
+                ))
                 .collect(Collectors.toList());
     }
-}
 
+    private boolean isCurrent() {
+        DashboardCounters c = counters;
+        return c != null && c.today.equals(LocalDate.now(TZ));
+    }
+
+    private static OffsetDateTime midnight(LocalDate day) {
+        return day.atStartOfDay(TZ).toOffsetDateTime();
+    }
+}
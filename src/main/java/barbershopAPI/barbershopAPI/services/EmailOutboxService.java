@@ -0,0 +1,254 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.config.AsyncConfig;
+import barbershopAPI.barbershopAPI.entities.Appointment;
+import barbershopAPI.barbershopAPI.entities.EmailOutbox;
+import barbershopAPI.barbershopAPI.enums.EmailType;
+import barbershopAPI.barbershopAPI.events.EmailQueuedEvent;
+import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
+import barbershopAPI.barbershopAPI.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox dos emails transacionais (confirmação de marcação, verificação, definição e reset de senha).
+ *
+ * Os pedidos escrevem uma linha em email_outbox na mesma transação da operação que origina o email
+ * (a marcação, o token): ou ficam as duas ou nenhuma, e o email não se perde se a JVM morrer antes de
+ * sair. Depois do commit o envio é acordado no mailExecutor; um polling periódico apanha o que ficou
+ * para trás (restart, fila cheia, SMTP em baixo).
+ *
+ * O worker reclama lotes com FOR UPDATE SKIP LOCKED e adia next_attempt_at pelo tempo do lease,
+ * envia o lote numa só ligação SMTP, apaga as linhas enviadas e reagenda as falhadas com
+ * backoff exponencial, até desistir ao fim de EMAIL_OUTBOX_MAX_ATTEMPTS tentativas.
+ *
+ * Os links de verificação, definição e reset de senha levam o token em claro (as tabelas de tokens
+ * só têm o hash), por isso o link é apagado quando o email falha de vez ou quando o token expira, e
+ * as linhas falhadas são removidas ao fim de EMAIL_OUTBOX_FAILED_RETENTION_DAYS.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final Mailer mailer;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${EMAIL_OUTBOX_BATCH_SIZE:50}")
+    private int batchSize;
+
+    @Value("${EMAIL_OUTBOX_MAX_ATTEMPTS:8}")
+    private int maxAttempts;
+
+    @Value("${EMAIL_OUTBOX_BACKOFF_BASE_S:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${EMAIL_OUTBOX_BACKOFF_MAX_S:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${EMAIL_OUTBOX_LEASE_S:300}")
+    private long leaseSeconds;
+
+    @Value("${EMAIL_OUTBOX_FAILED_RETENTION_DAYS:7}")
+    private long failedRetentionDays;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    public void enqueueAppointmentConfirmation(String to, UUID appointmentId) {
+        enqueue(EmailOutbox.builder().type(EmailType.APPOINTMENT_CONFIRMATION)
+                .recipient(to).appointmentId(appointmentId));
+    }
+
+    // linkExpiresAt: expiração do token contido no link; depois disso o link não fica guardado
+
+    public void enqueueEmailVerification(String to, String verifyLink, OffsetDateTime linkExpiresAt) {
+        enqueue(EmailOutbox.builder().type(EmailType.EMAIL_VERIFICATION)
+                .recipient(to).link(verifyLink).linkExpiresAt(linkExpiresAt));
+    }
+
+    public void enqueueSetPasswordEmail(String to, String clientName, String setPasswordLink, OffsetDateTime linkExpiresAt) {
+        enqueue(EmailOutbox.builder().type(EmailType.SET_PASSWORD)
+                .recipient(to).recipientName(clientName).link(setPasswordLink).linkExpiresAt(linkExpiresAt));
+    }
+
+    public void enqueuePasswordResetEmail(String to, String clientName, String resetLink, OffsetDateTime linkExpiresAt) {
+        enqueue(EmailOutbox.builder().type(EmailType.PASSWORD_RESET)
+                .recipient(to).recipientName(clientName).link(resetLink).linkExpiresAt(linkExpiresAt));
+    }
+
+    private void enqueue(EmailOutbox.EmailOutboxBuilder builder) {
+        var now = OffsetDateTime.now(ZoneOffset.UTC);
+        var row = outboxRepository.save(builder.nextAttemptAt(now).createdAt(now).build());
+        events.publishEvent(new EmailQueuedEvent(row.getId()));
+    }
+
+    @Async(AsyncConfig.MAIL_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${EMAIL_OUTBOX_POLL_MS:30000}", initialDelayString = "${EMAIL_OUTBOX_POLL_MS:30000}")
+    public void poll() {
+        drain();
+    }
+
+    /** Apaga os links com o token já expirado e as linhas falhadas há mais de EMAIL_OUTBOX_FAILED_RETENTION_DAYS. */
+    @Scheduled(cron = "0 37 * * * *")
+    public void purge() {
+        var now = OffsetDateTime.now(ZoneOffset.UTC);
+        int expired = outboxRepository.expireLinks(now);
+        int removed = outboxRepository.deleteFailedBefore(now.minusDays(failedRetentionDays));
+        if (expired > 0 || removed > 0) {
+            log.info("Outbox: {} link(s) expirados descartados, {} email(s) falhados removidos", expired, removed);
+        }
+    }
+
+    /**
+     * Envia tudo o que está vencido. Só um drain corre de cada vez nesta instância: um pedido
+     * que chegue a meio deixa o rerun marcado e o drain em curso faz mais uma volta.
+     */
+    public void drain() {
+        rerun.set(true);
+        while (rerun.get() && draining.compareAndSet(false, true)) {
+            try {
+                rerun.set(false);
+                List<EmailOutbox> claimed;
+                do {
+                    claimed = claim();
+                    if (!claimed.isEmpty()) deliver(claimed);
+                } while (claimed.size() == batchSize);
+            } catch (Exception e) {
+                log.error("Erro ao drenar o outbox de emails: {}", e.getMessage(), e);
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    // Reclama um lote numa transação curta: a tentativa conta já e o lease protege o envio em curso
+    private List<EmailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            var now = OffsetDateTime.now(ZoneOffset.UTC);
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(now, Limit.of(batchSize));
+            due.forEach(e -> {
+                e.setAttempts(e.getAttempts() + 1);
+                e.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            });
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        Map<UUID, Appointment> appointments = loadAppointments(batch);
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        Map<EmailOutbox, Exception> failed = new HashMap<>();
+
+        for (EmailOutbox e : batch) {
+            try {
+                messages.put(build(e, appointments), e);
+            } catch (Exception ex) {
+                failed.put(e, ex);
+            }
+        }
+        if (!messages.isEmpty()) {
+            mailer.sendBatch(new ArrayList<>(messages.keySet()))
+                    .forEach((msg, ex) -> failed.put(messages.get(msg), ex));
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (EmailOutbox e : batch) {
+            if (!failed.containsKey(e)) {
+                sent.add(e.getId());
+                count(e.getType(), "sent");
+            }
+        }
+        failed.forEach(this::reschedule);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) outboxRepository.deleteAllByIdInBatch(sent);
+            if (!failed.isEmpty()) outboxRepository.saveAll(failed.keySet());
+        });
+        log.info("Outbox: {} email(s) enviados, {} falhados", sent.size(), failed.size());
+    }
+
+    // Confirmações precisam da marcação com serviço e barbeiro; uma só query para o lote
+    private Map<UUID, Appointment> loadAppointments(List<EmailOutbox> batch) {
+        Set<UUID> ids = batch.stream()
+                .map(EmailOutbox::getAppointmentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) return Map.of();
+        return appointmentRepository.findAllWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+    }
+
+    private MimeMessage build(EmailOutbox e, Map<UUID, Appointment> appointments) throws Exception {
+        return switch (e.getType()) {
+            case APPOINTMENT_CONFIRMATION -> {
+                Appointment appt = appointments.get(e.getAppointmentId());
+                if (appt == null) throw new IllegalStateException("Marcação " + e.getAppointmentId() + " não existe");
+                yield mailer.buildAppointmentConfirmation(e.getRecipient(), appt, appt.getService(), appt.getBarber());
+            }
+            case EMAIL_VERIFICATION -> mailer.buildEmailVerification(e.getRecipient(), e.getLink());
+            case SET_PASSWORD -> mailer.buildSetPasswordEmail(e.getRecipient(), e.getRecipientName(), e.getLink());
+            case PASSWORD_RESET -> mailer.buildPasswordResetEmail(e.getRecipient(), e.getRecipientName(), e.getLink());
+        };
+    }
+
+    private void reschedule(EmailOutbox e, Exception ex) {
+        var now = OffsetDateTime.now(ZoneOffset.UTC);
+        String error = String.valueOf(ex.getMessage());
+        e.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (e.getAttempts() >= maxAttempts) {
+            e.setFailedAt(now);
+            e.setLink(null); // o token não fica guardado num email que já não vai sair
+            count(e.getType(), "failed");
+            log.error("Desistir do email {} para {} ao fim de {} tentativas: {}",
+                    e.getType(), e.getRecipient(), e.getAttempts(), error);
+        } else {
+            e.setNextAttemptAt(now.plusSeconds(backoffSeconds(e.getAttempts())));
+            count(e.getType(), "retry");
+            log.warn("Falha a enviar email {} para {} (tentativa {}): {}",
+                    e.getType(), e.getRecipient(), e.getAttempts(), error);
+        }
+    }
+
+    // base * 2^(tentativa-1), limitado ao máximo
+    private long backoffSeconds(int attempts) {
+        int exp = Math.min(attempts - 1, 20);
+        return Math.min(backoffMaxSeconds, backoffBaseSeconds << exp);
+    }
+
+    private void count(EmailType type, String outcome) {
+        Counter.builder("mail.outbox")
+                .description("Emails processados pelo outbox")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,89 @@
+package barbershopAPI.barbershopAPI.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template de email compilado uma só vez: o texto é partido em segmentos fixos intercalados com
+ * slots {{nome}}. Renderizar é só concatenar segmentos e valores num StringBuilder reutilizado
+ * pela thread, sem voltar a interpretar o template como o String.format fazia a cada envio.
+ * Os valores entram tal como vêm; o escape (HTML, ICS) é responsabilidade de quem chama.
+ */
+final class EmailTemplate {
+
+    private static final String BASE_PATH = "templates/email/";
+    private static final Pattern SLOT = Pattern.compile("\\{\\{(\\w+)}}");
+    // buffers maiores do que isto não ficam presos à thread depois do render
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+
+    private final String name;
+    private final String[] segments; // segments.length == slots.length + 1
+    private final String[] slots;    // slots[i] fica entre segments[i] e segments[i + 1]
+    private final int fixedLength;
+
+    private EmailTemplate(String name, String[] segments, String[] slots) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+        int len = 0;
+        for (String s : segments) len += s.length();
+        this.fixedLength = len;
+    }
+
+    /** Lê e compila um template de classpath:templates/email/. */
+    static EmailTemplate load(String file) {
+        try (InputStream in = EmailTemplate.class.getClassLoader().getResourceAsStream(BASE_PATH + file)) {
+            if (in == null) throw new IllegalStateException("Template de email não encontrado: " + BASE_PATH + file);
+            return compile(file, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler template de email " + file, e);
+        }
+    }
+
+    static EmailTemplate compile(String name, String source) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher m = SLOT.matcher(source);
+        int last = 0;
+        while (m.find()) {
+            segments.add(source.substring(last, m.start()));
+            slots.add(m.group(1));
+            last = m.end();
+        }
+        segments.add(source.substring(last));
+        return new EmailTemplate(name, segments.toArray(String[]::new), slots.toArray(String[]::new));
+    }
+
+    /**
+     * Renderiza com pares nome/valor: {@code render("clientName", name, "link", link)}.
+     * Falta de um valor é erro do chamador; null é escrito como "null", tal como no String.format.
+     */
+    String render(Object... namesAndValues) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.ensureCapacity(fixedLength + 256 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(segments[i]).append(valueOf(slots[i], namesAndValues));
+        }
+        sb.append(segments[slots.length]);
+        String result = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) BUFFER.remove();
+        return result;
+    }
+
+    // poucos slots por template: uma pesquisa linear evita criar um Map por email
+    private Object valueOf(String slot, Object[] namesAndValues) {
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            if (slot.equals(namesAndValues[i])) return namesAndValues[i + 1];
+        }
+        throw new IllegalArgumentException("Template " + name + ": falta o valor de {{" + slot + "}}");
+    }
+}
@@ -0,0 +1,145 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.AppointmentResponse;
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateAppointmentRequest;
+import barbershopAPI.barbershopAPI.entities.IdempotencyRecord;
+import barbershopAPI.barbershopAPI.repositories.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Idempotency-Key do POST /appointments: o primeiro pedido com uma chave guarda a resposta, e os
+ * retries com a mesma chave recebem-na de volta sem repetir lookups, verificação de conflitos nem
+ * o email de confirmação.
+ *
+ * As respostas ficam numa cache limitada (Caffeine, com TTL) e na tabela idempotency_key, escrita
+ * na mesma transação da marcação: ou ficam as duas ou nenhuma. A tabela cobre reinícios e retries
+ * que caiam noutra instância. A mesma chave com outro pedido é recusada. Cada chave vale só para
+ * o cliente da marcação: a mesma chave de dois clientes são duas chaves diferentes.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    public record Stored(String requestHash, AppointmentResponse response) {}
+
+    private record CacheKey(Long clientId, String key) {}
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Cache<CacheKey, Stored> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              @Value("${IDEMPOTENCY_TTL_H:24}") long ttlHours,
+                              @Value("${IDEMPOTENCY_CACHE_MAX_ENTRIES:10000}") long maxEntries) {
+        this.repository = repository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static void validateKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key inválida (1 a " + MAX_KEY_LENGTH + " caracteres)");
+        }
+    }
+
+    /**
+     * Hash do conteúdo do pedido, para distinguir um retry de uma reutilização da chave. Os campos
+     * entram normalizados: o início como instante (o mesmo horário com outro offset é o mesmo
+     * pedido) e as notas com o comprimento à frente, para nenhum texto se confundir com outro campo.
+     */
+    public static String hash(CreateAppointmentRequest req) {
+        String canonical = String.join("|",
+                String.valueOf(req.clientId()),
+                String.valueOf(req.barberId()),
+                String.valueOf(req.serviceId()),
+                String.valueOf(req.startsAt().toInstant()),
+                String.valueOf(req.holdId()),
+                req.notes() == null ? "-" : req.notes().length() + ":" + req.notes());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A resposta já guardada para a chave, se existir e ainda estiver em vigor.
+     * Lança {@link IdempotencyKeyReusedException} se a chave foi usada com outro pedido.
+     */
+    public Optional<AppointmentResponse> find(Long clientId, String key, String requestHash) {
+        CacheKey cacheKey = new CacheKey(clientId, key);
+        Stored stored = cache.getIfPresent(cacheKey);
+        if (stored == null) {
+            stored = repository.findById(new IdempotencyRecord.RecordId(clientId, key))
+                    .filter(r -> r.getExpiresAt().isAfter(OffsetDateTime.now()))
+                    .map(IdempotencyService::toStored)
+                    .orElse(null);
+            if (stored == null) return Optional.empty();
+            cache.put(cacheKey, stored);
+        }
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key já usada com um pedido diferente");
+        }
+        return Optional.of(stored.response());
+    }
+
+    /** Guarda a resposta; tem de correr na transação que criou a marcação. */
+    public void record(Long clientId, String key, String requestHash, AppointmentResponse r) {
+        var now = OffsetDateTime.now(ZoneOffset.UTC);
+        repository.save(IdempotencyRecord.builder()
+                .clientId(clientId)
+                .key(key)
+                .requestHash(requestHash)
+                .appointmentId(r.id())
+                .barberId(r.barberId())
+                .serviceId(r.serviceId())
+                .startsAt(r.startsAt())
+                .endsAt(r.endsAt())
+                .status(r.status())
+                .notes(r.notes())
+                .expiresAt(now.plus(ttl))
+                .createdAt(now)
+                .build());
+    }
+
+    /** Depois do commit: os retries seguintes nesta instância já não vão à base de dados. */
+    public void remember(Long clientId, String key, String requestHash, AppointmentResponse response) {
+        cache.put(new CacheKey(clientId, key), new Stored(requestHash, response));
+    }
+
+    @Scheduled(cron = "0 47 * * * *")
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(OffsetDateTime.now(ZoneOffset.UTC));
+        if (removed > 0) log.debug("Removidas {} chaves de idempotência expiradas", removed);
+    }
+
+    private static Stored toStored(IdempotencyRecord r) {
+        return new Stored(r.getRequestHash(), new AppointmentResponse(r.getAppointmentId(), r.getBarberId(),
+                r.getServiceId(), r.getClientId(), r.getStartsAt(), r.getEndsAt(), r.getStatus(), r.getNotes()));
+    }
+
+    public static class IdempotencyKeyReusedException extends RuntimeException {
+        public IdempotencyKeyReusedException(String message) { super(message); }
+    }
+}
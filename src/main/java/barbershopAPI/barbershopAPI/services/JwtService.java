@@ -1,17 +1,18 @@
 package barbershopAPI.barbershopAPI.services;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Function;
 
 @Slf4j
@@ -27,8 +28,26 @@ public class JwtService {
     @Value("${JWT_REFRESH_EXPIRATION:604800000}") // 7 days in milliseconds
     private long refreshExpiration;
 
+    // Chave e parser são imutáveis e thread-safe: criados uma vez em vez de a cada pedido
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verifica assinatura e expiração e devolve as claims, numa só passagem.
+     * Lança {@link JwtException} (ou IllegalArgumentException para token vazio) se o token não for válido.
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String extractUsername(String token) {
@@ -45,15 +64,22 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseToken(token);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    /** Claims com o id do cliente e os papéis: o filtro autentica só com o token, sem ir à BD. */
+    public static final String CLAIM_CLIENT_ID = "cid";
+    public static final String CLAIM_ROLES = "roles";
+
+    public String generateToken(Long clientId, String username, Collection<String> roles) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_CLIENT_ID, clientId);
+        claims.put(CLAIM_ROLES, List.copyOf(roles));
+        return createToken(claims, username);
     }
 
     public String generateToken(String username) {
@@ -75,6 +101,7 @@ public class JwtService {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString()) // jti, para revogar um token concreto no logout
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -85,6 +112,7 @@ public class JwtService {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -92,13 +120,13 @@ public class JwtService {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = parseToken(token);
+        return (claims.getSubject().equals(username) && !isTokenExpired(claims));
     }
 
     public Boolean validateToken(String token) {
         try {
-            return !isTokenExpired(token);
+            return !isTokenExpired(parseToken(token));
         } catch (Exception e) {
             log.warn("Invalid JWT token: {}", e.getMessage());
             return false;
@@ -1,17 +1,29 @@
 package barbershopAPI.barbershopAPI.services;
 
+import barbershopAPI.barbershopAPI.dto.CursorPage;
+import barbershopAPI.barbershopAPI.dto.NotificationDTOs.NotificationCursor;
 import barbershopAPI.barbershopAPI.entities.Notification;
+import barbershopAPI.barbershopAPI.events.NotificationsChangedEvent;
 import barbershopAPI.barbershopAPI.repositories.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
@@ -19,17 +31,30 @@ public class NotificationService {
     
     @Autowired
     private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${NOTIFICATION_UNREAD_COUNT_TTL_MS:5000}")
+    private long unreadCountTtlMs;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private record UnreadCount(long count, long version, long loadedAt) {}
+    private final AtomicLong unreadVersion = new AtomicLong();
+    private volatile UnreadCount unreadCount;
     
     // Create a new notification
     public Notification createNotification(Notification.NotificationType type, String title, String message, String icon) {
         Notification notification = new Notification(type, title, message, icon);
-        return notificationRepository.save(notification);
+        return published(notificationRepository.save(notification));
     }
     
     // Create a new notification with action URL
     public Notification createNotification(Notification.NotificationType type, String title, String message, String icon, String actionUrl) {
         Notification notification = new Notification(type, title, message, icon, actionUrl);
-        return notificationRepository.save(notification);
+        return published(notificationRepository.save(notification));
     }
     
     // Get all notifications
@@ -39,18 +64,57 @@ public class NotificationService {
     
     // Get notifications with pagination
     public Page<Notification> getNotificationsWithPagination(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, LATEST_FIRST);
         return notificationRepository.findAll(pageable);
     }
     
+    // Feed paginado por cursor, mais recentes primeiro (todas ou só as não lidas)
+    @Transactional(readOnly = true)
+    public CursorPage<Notification> getFeed(boolean unreadOnly, NotificationCursor before, int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit tem de ser positivo");
+        int size = Math.min(limit, MAX_PAGE_SIZE);
+        Limit rows = Limit.of(size + 1);
+        List<Notification> result;
+        if (unreadOnly) {
+            result = before == null
+                    ? notificationRepository.findLatestUnread(rows)
+                    : notificationRepository.findLatestUnreadBefore(before.createdAt(), before.id(), rows);
+        } else {
+            result = before == null
+                    ? notificationRepository.findLatest(rows)
+                    : notificationRepository.findLatestBefore(before.createdAt(), before.id(), rows);
+        }
+        return CursorPage.of(result, size, n -> NotificationCursor.of(n).encode());
+    }
+    
     // Get unread notifications
     public List<Notification> getUnreadNotifications() {
         return notificationRepository.findByReadStatusFalseOrderByCreatedAtDesc();
     }
     
     // Get unread count
+    // O painel pergunta isto a cada poucos segundos: a contagem fica em memória até alguma notificação
+    // mudar nesta instância ou passar o TTL (alterações feitas noutras instâncias)
+    @Transactional(readOnly = true)
     public long getUnreadCount() {
-        return notificationRepository.countByReadStatusFalse();
+        long version = unreadVersion.get();
+        UnreadCount cached = unreadCount;
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.version() == version && now - cached.loadedAt() < unreadCountTtlMs) {
+            return cached.count();
+        }
+        long count = notificationRepository.countByReadStatusFalse();
+        unreadCount = new UnreadCount(count, version, now);
+        return count;
+    }
+    
+    // Depois do commit, antes dos outros listeners (o stream SSE lê a contagem a seguir)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsChanged(NotificationsChangedEvent event) {
+        // uma contagem lida antes do commit fica com a versão antiga e é descartada
+        unreadVersion.incrementAndGet();
     }
     
     // Get notification by ID
@@ -61,18 +125,22 @@ public class NotificationService {
     // Mark notification as read
     public boolean markAsRead(Long id) {
         int updated = notificationRepository.markAsRead(id);
+        if (updated > 0) unreadCountChanged();
         return updated > 0;
     }
     
     // Mark all notifications as read
     public int markAllAsRead() {
-        return notificationRepository.markAllAsRead();
+        int updated = notificationRepository.markAllAsRead();
+        if (updated > 0) unreadCountChanged();
+        return updated;
     }
     
     // Delete notification
     public boolean deleteNotification(Long id) {
         if (notificationRepository.existsById(id)) {
             notificationRepository.deleteById(id);
+            unreadCountChanged();
             return true;
         }
         return false;
@@ -81,9 +149,21 @@ public class NotificationService {
     // Delete old notifications (older than 30 days)
     public int deleteOldNotifications() {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        return notificationRepository.deleteOldNotifications(cutoffDate);
+        int deleted = notificationRepository.deleteOldNotifications(cutoffDate);
+        if (deleted > 0) unreadCountChanged();
+        return deleted;
     }
     
+    // Avisar o stream SSE (depois do commit) de uma notificação nova
+    private Notification published(Notification notification) {
+        events.publishEvent(new NotificationsChangedEvent(notification));
+        return notification;
+    }
+
+    private void unreadCountChanged() {
+        events.publishEvent(new NotificationsChangedEvent(null));
+    }
+
     // Convenience methods for specific notification types
     
     // Notify new client
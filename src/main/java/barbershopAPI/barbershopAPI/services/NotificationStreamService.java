@@ -0,0 +1,188 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.config.AsyncConfig;
+import barbershopAPI.barbershopAPI.events.NotificationsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream SSE das notificações para o painel de administração, em vez de polling ao
+ * /notifications/unread e /unread/count.
+ *
+ * Eventos: "notification" com cada notificação criada e "unread-count" sempre que o número de
+ * não lidas muda (e logo ao ligar). Só são emitidos depois do commit. Um comentário de
+ * heartbeat periódico mantém a ligação viva através de proxies e deteta clientes que saíram;
+ * o heartbeat também volta a ler a contagem, para apanhar as notificações criadas ou lidas
+ * noutras instâncias, cujos eventos não chegam aqui.
+ *
+ * Cada subscritor tem uma fila limitada; se o cliente não a consegue esvaziar a ligação é
+ * fechada e o EventSource do browser volta a ligar-se e recebe o estado atual.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationStreamService {
+
+    private final NotificationService notificationService;
+    @Qualifier(AsyncConfig.NOTIFICATION_STREAM_EXECUTOR)
+    private final TaskExecutor notificationStreamExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${NOTIFICATION_STREAM_BUFFER:100}")
+    private int bufferSize;
+
+    @Value("${NOTIFICATION_STREAM_TIMEOUT_MS:1800000}")
+    private long timeoutMs;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    // última contagem de não lidas enviada a todos os subscritores
+    private final AtomicLong lastUnreadCount = new AtomicLong(-1);
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("notification.stream.subscribers", subscribers, Map::size)
+                .description("Ligações SSE de notificações abertas")
+                .register(meterRegistry);
+        dropped = Counter.builder("notification.stream.dropped")
+                .description("Subscritores desligados por terem a fila cheia")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(nextId.incrementAndGet(), emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber.id));
+        emitter.onTimeout(() -> subscribers.remove(subscriber.id));
+        emitter.onError(e -> subscribers.remove(subscriber.id));
+        subscribers.put(subscriber.id, subscriber);
+        subscriber.offer(new StreamEvent("unread-count", null, notificationService.getUnreadCount()));
+        return emitter;
+    }
+
+    @Async(AsyncConfig.NOTIFICATION_STREAM_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsChanged(NotificationsChangedEvent event) {
+        if (subscribers.isEmpty()) return;
+        try {
+            if (event.created() != null) {
+                broadcast(new StreamEvent("notification", String.valueOf(event.created().getId()), event.created()));
+            }
+            // uma contagem por alteração, em vez de uma por painel a cada poucos segundos
+            broadcastUnreadCount(notificationService.getUnreadCount());
+        } catch (Exception e) {
+            log.warn("Falha ao publicar notificação no stream: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${NOTIFICATION_STREAM_HEARTBEAT_MS:15000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) return;
+        broadcast(StreamEvent.HEARTBEAT);
+        try {
+            // a contagem em cache expira sozinha, por isso isto vai à base de dados no máximo uma vez por TTL
+            long count = notificationService.getUnreadCount();
+            if (count != lastUnreadCount.get()) broadcastUnreadCount(count);
+        } catch (Exception e) {
+            log.warn("Falha ao atualizar a contagem de não lidas no stream: {}", e.getMessage());
+        }
+    }
+
+    private void broadcastUnreadCount(long count) {
+        lastUnreadCount.set(count);
+        broadcast(new StreamEvent("unread-count", null, count));
+    }
+
+    private void broadcast(StreamEvent event) {
+        subscribers.values().forEach(s -> s.offer(event));
+    }
+
+    private void drop(Subscriber s) {
+        if (subscribers.remove(s.id) != null) {
+            dropped.increment();
+            log.warn("Stream de notificações {} desligado: fila cheia ({} eventos)", s.id, bufferSize);
+            s.emitter.complete();
+        }
+    }
+
+    // name null = heartbeat (comentário SSE, ignorado pelo EventSource)
+    private record StreamEvent(String name, String id, Object data) {
+        static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null);
+
+        // o builder do SseEmitter não pode ser partilhado entre subscritores: cria-se um por envio
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) return SseEmitter.event().comment("ping");
+            SseEmitter.SseEventBuilder b = SseEmitter.event().name(name).data(data);
+            return id == null ? b : b.id(id);
+        }
+    }
+
+    private final class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(long id, SseEmitter emitter, BlockingQueue<StreamEvent> queue) {
+            this.id = id;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void offer(StreamEvent event) {
+            if (!queue.offer(event)) {
+                drop(this);
+                return;
+            }
+            schedule();
+        }
+
+        // no máximo um envio em curso por subscritor, para os eventos saírem pela ordem
+        private void schedule() {
+            if (!sending.compareAndSet(false, true)) return;
+            try {
+                notificationStreamExecutor.execute(this::drain);
+            } catch (Exception e) {
+                // executor saturado: os eventos ficam na fila e saem no próximo evento ou heartbeat
+                sending.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                StreamEvent event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event.toSse());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // cliente desligou-se ou o emitter já terminou
+                subscribers.remove(id);
+                queue.clear();
+            } finally {
+                sending.set(false);
+            }
+            if (!queue.isEmpty() && subscribers.containsKey(id)) schedule();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package barbershopAPI.barbershopAPI.services;
 import barbershopAPI.barbershopAPI.entities.SetPasswordToken;
 import barbershopAPI.barbershopAPI.repositories.ClientRepository;
 import barbershopAPI.barbershopAPI.repositories.SetPasswordTokenRepository;
+import barbershopAPI.barbershopAPI.services.Auth.TokenRevocationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,8 +24,9 @@ import java.util.Base64;
 public class PasswordResetService {
     private final SetPasswordTokenRepository tokenRepo;
     private final ClientRepository clientRepo;
-    private final Mailer mailer;
+    private final EmailOutboxService emailOutbox;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${FRONTEND_BASE_URL:https://barbershop-frontend-nine.vercel.app}")
     String frontendBaseUrl;
@@ -79,7 +81,7 @@ public class PasswordResetService {
         tokenRepo.save(resetToken);
 
         var link = frontendBaseUrl.replaceAll("/+$", "") + "/redefinir-senha?token=" + token;
-        mailer.sendPasswordResetEmail(email, client.getName(), link);
+        emailOutbox.enqueuePasswordResetEmail(email, client.getName(), link, resetToken.getExpiresAt());
         
         log.info("Email de reset de password enviado para: {}", email);
     }
@@ -108,6 +110,8 @@ public class PasswordResetService {
 
         client.setPassword(passwordEncoder.encode(newPassword));
         clientRepo.save(client);
+        // sessões abertas com a password antiga deixam de valer
+        tokenRevocationService.revokeAllFor(client.getEmail());
 
         // Marcar token como usado
         resetToken.setUsedAt(now);
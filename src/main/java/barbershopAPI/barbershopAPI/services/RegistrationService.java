@@ -25,7 +25,7 @@ import java.util.Base64;
 public class RegistrationService {
     private final RegistrationTokenRepository tokenRepo;
     private final ClientRepository clientRepo;
-    private final Mailer mailer;
+    private final EmailOutboxService emailOutbox;
     private final PasswordEncoder passwordEncoder; // garante que tens um encoder; se não usas Spring Security, cria um bean BCryptPasswordEncoder.
     private final NotificationService notificationService;
 
@@ -76,7 +76,7 @@ public class RegistrationService {
         tokenRepo.save(rt);
 
         var link = frontendBaseUrl.replaceAll("/+$","") + "/confirmar?token=" + token;
-        mailer.sendEmailVerification(email, link);
+        emailOutbox.enqueueEmailVerification(email, link, rt.getExpiresAt());
     }
 
     /** Confirma token e cria Client. */
@@ -0,0 +1,84 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fila de escrita por barbeiro: marcar, alterar e cancelar para o mesmo barbeiro correm um de cada vez
+ * nesta instância, barbeiros diferentes em paralelo. Locks em stripes pelo id do barbeiro (dois
+ * barbeiros podem partilhar um stripe, o que só custa algum paralelismo).
+ *
+ * Quem chama corre a transação inteira dentro do lock: o BusyIntervalIndex (e o ScheduleCache) são
+ * atualizados no commit, antes de o lock ser libertado, por isso o pedido seguinte vê a agenda já com
+ * a marcação anterior e é rejeitado logo na verificação em memória, sem ir bater na constraint
+ * appointment_no_overlap (que continua a proteger contra outras instâncias).
+ */
+@Component
+public class BookingLanes {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+    private final Counter timeouts;
+
+    public BookingLanes(@Value("${BOOKING_LANE_STRIPES:64}") int stripes,
+                        @Value("${BOOKING_LANE_TIMEOUT_MS:5000}") long timeoutMs,
+                        MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock(true);
+        this.timeoutMs = timeoutMs;
+        this.timeouts = Counter.builder("booking.lane.timeouts")
+                .description("Pedidos de marcação que desistiram à espera da vez do barbeiro")
+                .register(meterRegistry);
+    }
+
+    /** Corre {@code work} com a vez do barbeiro. */
+    public <T> T run(Long barberId, Supplier<T> work) {
+        return run(List.of(barberId), work);
+    }
+
+    /**
+     * Corre {@code work} com a vez de todos os barbeiros indicados (ex.: mudar uma marcação de
+     * barbeiro). Os stripes são sempre adquiridos por ordem crescente, para não haver deadlocks.
+     */
+    public <T> T run(Collection<Long> barberIds, Supplier<T> work) {
+        int[] indexes = barberIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    timeouts.increment();
+                    throw new LaneBusyException("Agenda do barbeiro ocupada, tente novamente");
+                }
+                acquired++;
+            }
+            return work.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LaneBusyException("Pedido interrompido à espera da agenda do barbeiro");
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripe(Long barberId) {
+        return Math.floorMod(Long.hashCode(barberId), stripes.length);
+    }
+
+    public static class LaneBusyException extends RuntimeException {
+        public LaneBusyException(String message) { super(message); }
+    }
+}
@@ -0,0 +1,45 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Intervalo ocupado [start, end) de um barbeiro.
+ * O id é o UUID da marcação ou o id (Long) da folga que o originou.
+ */
+public record BusyInterval(Long barberId, Object id, OffsetDateTime start, OffsetDateTime end) {
+
+    public static final Comparator<BusyInterval> BY_START = Comparator.comparing(BusyInterval::start);
+
+    // Construtores usados pelas projeções JPQL (marcações e folgas)
+    public BusyInterval(Long barberId, UUID id, OffsetDateTime start, OffsetDateTime end) {
+        this(barberId, (Object) id, start, end);
+    }
+
+    public BusyInterval(Long barberId, Long id, OffsetDateTime start, OffsetDateTime end) {
+        this(barberId, (Object) id, start, end);
+    }
+
+    public boolean isTimeOff() {
+        return id instanceof Long;
+    }
+
+    public boolean overlaps(OffsetDateTime s, OffsetDateTime e) {
+        return start.isBefore(e) && end.isAfter(s);
+    }
+
+    /** Junta duas listas já ordenadas por início numa só lista ordenada. */
+    public static List<BusyInterval> mergeSorted(List<BusyInterval> a, List<BusyInterval> b) {
+        List<BusyInterval> out = new ArrayList<>(a.size() + b.size());
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            out.add(BY_START.compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+        }
+        while (i < a.size()) out.add(a.get(i++));
+        while (j < b.size()) out.add(b.get(j++));
+        return out;
+    }
+}
@@ -0,0 +1,130 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import barbershopAPI.barbershopAPI.events.AppointmentChangedEvent;
+import barbershopAPI.barbershopAPI.events.AppointmentSnapshot;
+import barbershopAPI.barbershopAPI.events.TimeOffChangedEvent;
+import barbershopAPI.barbershopAPI.events.TimeOffSnapshot;
+import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
+import barbershopAPI.barbershopAPI.repositories.TimeOffRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verificação de conflitos sem queries: uma {@link IntervalTree} por barbeiro com as marcações
+ * ativas e as folgas que acabam a partir de pouco antes do carregamento. Cada árvore é carregada
+ * na primeira verificação do barbeiro (duas queries) e depois mantida pelos eventos de escrita,
+ * depois do commit. O TTL volta a carregá-la de vez em quando, o que também apanha escritas feitas
+ * noutras instâncias; contra as marcações, a última palavra continua a ser da constraint
+ * appointment_no_overlap, mas uma folga só é vista quando a árvore recarrega. Por isso o TTL
+ * não deve passar o do ScheduleCache (SCHEDULE_CACHE_TTL_MIN), que é o atraso que a
+ * disponibilidade já aceita.
+ *
+ * Intervalos que comecem antes da janela carregada (marcações no passado) são verificados
+ * no ScheduleCache.
+ */
+@Component
+public class BusyIntervalIndex {
+
+    private final AppointmentRepository appointmentRepo;
+    private final TimeOffRepository timeOffRepo;
+    private final ScheduleCache scheduleCache;
+    private final Duration past;
+    private final Cache<Long, IntervalTree> trees;
+
+    // incrementado a cada escrita; impede que um carregamento guarde uma árvore já ultrapassada
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public BusyIntervalIndex(AppointmentRepository appointmentRepo,
+                             TimeOffRepository timeOffRepo,
+                             ScheduleCache scheduleCache,
+                             MeterRegistry meterRegistry,
+                             @Value("${BUSY_INDEX_MAX_BARBERS:500}") long maxBarbers,
+                             @Value("${BUSY_INDEX_TTL_MIN:10}") long ttlMin,
+                             @Value("${BUSY_INDEX_PAST_DAYS:1}") long pastDays) {
+        this.appointmentRepo = appointmentRepo;
+        this.timeOffRepo = timeOffRepo;
+        this.scheduleCache = scheduleCache;
+        this.past = Duration.ofDays(pastDays);
+        this.trees = Caffeine.newBuilder()
+                .maximumSize(maxBarbers)
+                .expireAfterWrite(Duration.ofMinutes(ttlMin))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, "busy_intervals");
+    }
+
+    /** Intervalos ocupados (marcações ativas e folgas) que se sobrepõem a [start, end). */
+    public List<BusyInterval> overlapping(Long barberId, OffsetDateTime start, OffsetDateTime end) {
+        IntervalTree tree = tree(barberId);
+        if (start.isBefore(tree.coversFrom())) {
+            return scheduleCache.overlapping(barberId, start, end);
+        }
+        return tree.overlapping(start, end);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSnapshot before = event.before();
+        AppointmentSnapshot after = event.after();
+        if (before != null) apply(before.barberId(), before.id(), null);
+        if (after != null) {
+            apply(after.barberId(), after.id(), after.active()
+                    ? new BusyInterval(after.barberId(), after.id(), after.startsAt(), after.endsAt())
+                    : null);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeOffChanged(TimeOffChangedEvent event) {
+        TimeOffSnapshot before = event.before();
+        TimeOffSnapshot after = event.after();
+        if (before != null) apply(before.barberId(), before.id(), null);
+        if (after != null) {
+            apply(after.barberId(), after.id(),
+                    new BusyInterval(after.barberId(), after.id(), after.startsAt(), after.endsAt()));
+        }
+    }
+
+    private void apply(Long barberId, Object removeId, BusyInterval added) {
+        generation(barberId).incrementAndGet();
+        IntervalTree tree = trees.getIfPresent(barberId);
+        if (tree == null) return;
+        tree.remove(removeId);
+        if (added != null) tree.put(added);
+    }
+
+    private IntervalTree tree(Long barberId) {
+        IntervalTree tree = trees.getIfPresent(barberId);
+        if (tree != null) return tree;
+
+        long seen = generation(barberId).get();
+        OffsetDateTime from = OffsetDateTime.now().minus(past);
+        tree = new IntervalTree(from);
+        appointmentRepo.findBusyIntervalsEndingAfter(barberId, from).forEach(tree::put);
+        timeOffRepo.findBusyIntervalsEndingAfter(barberId, from).forEach(tree::put);
+
+        // se houve uma escrita durante o carregamento, usa-se a árvore só desta vez; a verificação
+        // é feita dentro do compute para não haver uma escrita entre ela e a inserção
+        IntervalTree loaded = tree;
+        AtomicLong generation = generation(barberId);
+        IntervalTree cached = trees.asMap().compute(barberId, (k, existing) ->
+                existing != null || generation.get() != seen ? existing : loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    private AtomicLong generation(Long barberId) {
+        return generations.computeIfAbsent(barberId, k -> new AtomicLong());
+    }
+}
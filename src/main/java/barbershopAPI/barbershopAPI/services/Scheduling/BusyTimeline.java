@@ -0,0 +1,60 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Intervalos ocupados de um barbeiro fundidos numa sequência disjunta e ordenada
+ * de [início, fim) em epoch millis. Como os intervalos são disjuntos, os fins também
+ * ficam ordenados e é possível procurar por pesquisa binária.
+ */
+public final class BusyTimeline {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int size;
+
+    private BusyTimeline(long[] starts, long[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /** Constrói a linha temporal a partir de intervalos ordenados por início. */
+    public static BusyTimeline of(List<BusyInterval> sortedByStart) {
+        long[] starts = new long[sortedByStart.size()];
+        long[] ends = new long[sortedByStart.size()];
+        int n = 0;
+        for (BusyInterval b : sortedByStart) {
+            long s = b.start().toInstant().toEpochMilli();
+            long e = b.end().toInstant().toEpochMilli();
+            if (n > 0 && s <= ends[n - 1]) {
+                ends[n - 1] = Math.max(ends[n - 1], e);
+            } else {
+                starts[n] = s;
+                ends[n] = e;
+                n++;
+            }
+        }
+        return new BusyTimeline(starts, ends, n);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long startAt(int i) {
+        return starts[i];
+    }
+
+    public long endAt(int i) {
+        return ends[i];
+    }
+
+    /** Índice do primeiro intervalo que termina depois de {@code ms} (ou {@code size()}). */
+    public int firstEndingAfter(long ms) {
+        int i = Arrays.binarySearch(ends, 0, size, ms);
+        // fins iguais a ms não contam: o intervalo é [início, fim)
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Agenda de um barbeiro num dia: blocos de horário ordenados por início, intervalos
+ * ocupados (marcações ativas + folgas) que tocam o dia, ordenados por início, e o
+ * {@link SlotIndex} correspondente. Imutável: cada alteração produz uma nova instância.
+ */
+public final class DaySchedule {
+
+    private final LocalDate day;
+    private final ZoneId zone;
+    private final List<WorkBlock> blocks;
+    private final List<BusyInterval> busy;
+    private final BusyTimeline timeline;
+    private final SlotIndex index;
+
+    public DaySchedule(LocalDate day, ZoneId zone, List<WorkBlock> blocks, List<BusyInterval> busy) {
+        this.day = day;
+        this.zone = zone;
+        this.blocks = List.copyOf(blocks);
+        this.busy = List.copyOf(busy);
+        this.timeline = BusyTimeline.of(this.busy);
+        this.index = SlotIndex.build(day, zone, this.blocks, timeline);
+    }
+
+    private DaySchedule(DaySchedule prev, List<BusyInterval> busy, BusyInterval removed, BusyInterval added) {
+        this.day = prev.day;
+        this.zone = prev.zone;
+        this.blocks = prev.blocks;
+        this.busy = List.copyOf(busy);
+        this.timeline = BusyTimeline.of(this.busy);
+        this.index = prev.index.patch(timeline, removed, added);
+    }
+
+    /**
+     * Remove o intervalo com id {@code removeId} (se existir) e acrescenta {@code added}
+     * (se não for null e tocar o dia). Aplicar a mesma alteração duas vezes dá o mesmo resultado.
+     */
+    public DaySchedule withChange(Object removeId, BusyInterval added) {
+        OffsetDateTime dayStart = day.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime dayEnd = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        if (added != null && !added.overlaps(dayStart, dayEnd)) added = null;
+
+        List<BusyInterval> next = new ArrayList<>(busy.size() + 1);
+        BusyInterval removed = null;
+        for (BusyInterval b : busy) {
+            if (removeId != null && removeId.equals(b.id())) removed = b;
+            else next.add(b);
+        }
+        if (removed == null && added == null) return this;
+        if (added != null) {
+            int pos = 0;
+            while (pos < next.size() && BusyInterval.BY_START.compare(next.get(pos), added) <= 0) pos++;
+            next.add(pos, added);
+        }
+        return new DaySchedule(this, next, removed, added);
+    }
+
+    public List<WorkBlock> blocks() {
+        return blocks;
+    }
+
+    public List<BusyInterval> busy() {
+        return busy;
+    }
+
+    public BusyTimeline timeline() {
+        return timeline;
+    }
+
+    public SlotIndex index() {
+        return index;
+    }
+
+    public List<BusyInterval> overlapping(OffsetDateTime start, OffsetDateTime end) {
+        List<BusyInterval> out = new ArrayList<>();
+        for (BusyInterval b : busy) {
+            if (!b.start().isBefore(end)) break;
+            if (b.overlaps(start, end)) out.add(b);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,152 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Árvore de intervalos de um barbeiro: AVL ordenada por início, em que cada nó guarda o maior fim
+ * da sua subárvore. Uma pesquisa de sobreposição desce só pelos ramos que ainda podem tocar em
+ * [start, end), por isso custa O(log n + k) para k resultados; inserir e remover custam O(log n).
+ *
+ * Só tem os intervalos que acabam depois de {@link #coversFrom()}: pesquisas que comecem antes
+ * disso não têm resposta completa aqui. Os métodos são sincronizados (um barbeiro por árvore,
+ * por isso a contenção é baixa).
+ */
+final class IntervalTree {
+
+    // o id desempata intervalos com o mesmo início (UUID das marcações, Long das folgas)
+    private static final Comparator<BusyInterval> ORDER =
+            BusyInterval.BY_START.thenComparing(b -> b.id().toString());
+
+    private static final class Node {
+        final BusyInterval value;
+        Node left, right;
+        int height = 1;
+        OffsetDateTime maxEnd;
+
+        Node(BusyInterval value) {
+            this.value = value;
+            this.maxEnd = value.end();
+        }
+    }
+
+    private final OffsetDateTime coversFrom;
+    private final Map<Object, BusyInterval> byId = new HashMap<>();
+    private Node root;
+
+    IntervalTree(OffsetDateTime coversFrom) {
+        this.coversFrom = coversFrom;
+    }
+
+    OffsetDateTime coversFrom() {
+        return coversFrom;
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    /** Insere o intervalo, substituindo o que tiver o mesmo id. */
+    synchronized void put(BusyInterval interval) {
+        BusyInterval old = byId.put(interval.id(), interval);
+        if (old != null) root = delete(root, old);
+        root = insert(root, interval);
+    }
+
+    synchronized void remove(Object id) {
+        BusyInterval old = byId.remove(id);
+        if (old != null) root = delete(root, old);
+    }
+
+    /** Intervalos que se sobrepõem a [start, end), por ordem de início. */
+    synchronized List<BusyInterval> overlapping(OffsetDateTime start, OffsetDateTime end) {
+        List<BusyInterval> out = new ArrayList<>();
+        collect(root, start, end, out);
+        return out;
+    }
+
+    private static void collect(Node node, OffsetDateTime start, OffsetDateTime end, List<BusyInterval> out) {
+        // nada nesta subárvore acaba depois de start
+        if (node == null || !node.maxEnd.isAfter(start)) return;
+        collect(node.left, start, end, out);
+        // à direita só há inícios >= a este: se este já não começa antes de end, nenhum começa
+        if (!node.value.start().isBefore(end)) return;
+        if (node.value.end().isAfter(start)) out.add(node.value);
+        collect(node.right, start, end, out);
+    }
+
+    private static Node insert(Node node, BusyInterval value) {
+        if (node == null) return new Node(value);
+        if (ORDER.compare(value, node.value) < 0) node.left = insert(node.left, value);
+        else node.right = insert(node.right, value);
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, BusyInterval value) {
+        if (node == null) return null;
+        int cmp = ORDER.compare(value, node.value);
+        if (cmp < 0) {
+            node.left = delete(node.left, value);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, value);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            Node replacement = new Node(successor.value);
+            replacement.left = node.left;
+            replacement.right = delete(node.right, successor.value);
+            node = replacement;
+        }
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        OffsetDateTime max = node.value.end();
+        if (node.left != null && node.left.maxEnd.isAfter(max)) max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(max)) max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
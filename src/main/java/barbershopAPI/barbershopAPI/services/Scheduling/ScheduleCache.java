@@ -0,0 +1,240 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import barbershopAPI.barbershopAPI.entities.WorkingHours;
+import barbershopAPI.barbershopAPI.events.AppointmentChangedEvent;
+import barbershopAPI.barbershopAPI.events.AppointmentSnapshot;
+import barbershopAPI.barbershopAPI.events.TimeOffChangedEvent;
+import barbershopAPI.barbershopAPI.events.TimeOffSnapshot;
+import barbershopAPI.barbershopAPI.events.WorkingHoursChangedEvent;
+import barbershopAPI.barbershopAPI.repositories.AppointmentRepository;
+import barbershopAPI.barbershopAPI.repositories.TimeOffRepository;
+import barbershopAPI.barbershopAPI.repositories.WorkingHoursRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache em memória da agenda de cada barbeiro por dia (blocos de horário + intervalos ocupados).
+ * Limitada em tamanho (W-TinyLFU do Caffeine). Depois do commit de uma escrita numa marcação ou
+ * folga, os dias em cache afetados são atualizados no lugar (sem voltar à base de dados); mudanças
+ * de horário invalidam o barbeiro. As métricas ficam em /actuator/metrics/cache.* com cache=schedule.
+ */
+@Slf4j
+@Component
+public class ScheduleCache {
+
+    private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+    // folgas muito longas invalidam o barbeiro inteiro em vez de atualizar dia a dia
+    private static final int MAX_DAYS_PER_INVALIDATION = 366;
+
+    public record Key(Long barberId, LocalDate day) {}
+
+    private final WorkingHoursRepository workingHoursRepo;
+    private final AppointmentRepository appointmentRepo;
+    private final TimeOffRepository timeOffRepo;
+    private final Cache<Key, DaySchedule> cache;
+
+    // incrementado a cada invalidação; impede que um carregamento em bloco guarde dados já ultrapassados
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ScheduleCache(WorkingHoursRepository workingHoursRepo,
+                         AppointmentRepository appointmentRepo,
+                         TimeOffRepository timeOffRepo,
+                         MeterRegistry meterRegistry,
+                         @Value("${SCHEDULE_CACHE_MAX_ENTRIES:5000}") long maxEntries,
+                         @Value("${SCHEDULE_CACHE_TTL_MIN:10}") long ttlMin) {
+        this.workingHoursRepo = workingHoursRepo;
+        this.appointmentRepo = appointmentRepo;
+        this.timeOffRepo = timeOffRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMin))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "schedule");
+    }
+
+    public DaySchedule get(Long barberId, LocalDate day) {
+        return cache.get(new Key(barberId, day), this::load);
+    }
+
+    /**
+     * Agenda de vários barbeiros num intervalo de datas (inclusive). Os dias em falta
+     * são carregados em bloco, com três queries no total.
+     */
+    public Map<Key, DaySchedule> getAll(Collection<Long> barberIds, LocalDate fromDay, LocalDate toDay) {
+        List<LocalDate> days = fromDay.datesUntil(toDay.plusDays(1)).toList();
+        List<Key> keys = new ArrayList<>();
+        for (Long barberId : barberIds) {
+            for (LocalDate day : days) keys.add(new Key(barberId, day));
+        }
+
+        Map<Key, DaySchedule> result = new HashMap<>(cache.getAllPresent(keys));
+        Set<Long> missing = keys.stream()
+                .filter(k -> !result.containsKey(k))
+                .map(Key::barberId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (missing.isEmpty()) return result;
+
+        Map<Long, Long> seen = new HashMap<>();
+        for (Long barberId : missing) seen.put(barberId, generation(barberId).get());
+
+        OffsetDateTime from = fromDay.atStartOfDay(TZ).toOffsetDateTime();
+        OffsetDateTime to   = toDay.plusDays(1).atStartOfDay(TZ).toOffsetDateTime();
+
+        Map<Long, Map<DayOfWeek, List<WorkBlock>>> hours = new HashMap<>();
+        for (WorkingHours wh : workingHoursRepo.findByBarber_IdInOrderByStartTimeAsc(missing)) {
+            hours.computeIfAbsent(wh.getBarber().getId(), k -> new EnumMap<>(DayOfWeek.class))
+                    .computeIfAbsent(wh.getDayOfWeek(), k -> new ArrayList<>())
+                    .add(WorkBlock.of(wh));
+        }
+        Map<Long, List<BusyInterval>> appointments = appointmentRepo.findBusyIntervalsForBarbers(missing, from, to).stream()
+                .collect(Collectors.groupingBy(BusyInterval::barberId));
+        Map<Long, List<BusyInterval>> timeOffs = timeOffRepo.findBusyIntervalsForBarbers(missing, from, to).stream()
+                .collect(Collectors.groupingBy(BusyInterval::barberId));
+
+        for (Long barberId : missing) {
+            // distribuir cada intervalo (ordenado por início) pelos dias que toca
+            Map<LocalDate, List<BusyInterval>> busyByDay = new HashMap<>();
+            for (BusyInterval b : BusyInterval.mergeSorted(
+                    appointments.getOrDefault(barberId, List.of()),
+                    timeOffs.getOrDefault(barberId, List.of()))) {
+                LocalDate first = max(b.start().atZoneSameInstant(TZ).toLocalDate(), fromDay);
+                LocalDate last = min(lastDayOf(b.end()), toDay);
+                for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+                    busyByDay.computeIfAbsent(d, k -> new ArrayList<>()).add(b);
+                }
+            }
+
+            Map<DayOfWeek, List<WorkBlock>> byDay = hours.getOrDefault(barberId, Map.of());
+            AtomicLong generation = generation(barberId);
+            long loadedAt = seen.get(barberId);
+            for (LocalDate day : days) {
+                Key key = new Key(barberId, day);
+                if (result.containsKey(key)) continue;
+                DaySchedule schedule = new DaySchedule(day, TZ,
+                        byDay.getOrDefault(day.getDayOfWeek(), List.of()),
+                        busyByDay.getOrDefault(day, List.of()));
+                result.put(key, schedule);
+                // a verificação da geração e a inserção são atómicas na chave: uma escrita ou
+                // incrementa antes (e não se guarda) ou o seu computeIfPresent corre depois (e corrige)
+                cache.asMap().compute(key, (k, existing) ->
+                        existing != null || generation.get() != loadedAt ? existing : schedule);
+            }
+        }
+        return result;
+    }
+
+    /** Intervalos ocupados (marcações ativas e folgas) que se sobrepõem a [start, end). */
+    public List<BusyInterval> overlapping(Long barberId, OffsetDateTime start, OffsetDateTime end) {
+        LocalDate first = start.atZoneSameInstant(TZ).toLocalDate();
+        LocalDate last = lastDayOf(end);
+        if (first.equals(last)) {
+            return get(barberId, first).overlapping(start, end);
+        }
+        // um intervalo que atravessa vários dias aparece em cada um deles
+        Set<BusyInterval> out = new LinkedHashSet<>();
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            out.addAll(get(barberId, d).overlapping(start, end));
+        }
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * Aplica uma escrita aos dias em cache que [start, end) toca: remove o intervalo com
+     * {@code removeId} e acrescenta {@code added} (null numa remoção). Dias fora da cache ficam
+     * por carregar. A operação é idempotente, por isso não importa se um carregamento em
+     * curso já viu ou não a escrita.
+     */
+    public void apply(Long barberId, OffsetDateTime start, OffsetDateTime end, Object removeId, BusyInterval added) {
+        LocalDate first = start.atZoneSameInstant(TZ).toLocalDate();
+        LocalDate last = lastDayOf(end);
+        if (first.plusDays(MAX_DAYS_PER_INVALIDATION).isBefore(last)) {
+            invalidateBarber(barberId);
+            return;
+        }
+        generation(barberId).incrementAndGet();
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            cache.asMap().computeIfPresent(new Key(barberId, d), (k, schedule) -> schedule.withChange(removeId, added));
+        }
+    }
+
+    public void invalidateBarber(Long barberId) {
+        generation(barberId).incrementAndGet();
+        cache.asMap().keySet().removeIf(k -> k.barberId().equals(barberId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSnapshot before = event.before();
+        AppointmentSnapshot after = event.after();
+        if (before != null) {
+            apply(before.barberId(), before.startsAt(), before.endsAt(), before.id(), null);
+        }
+        if (after != null) {
+            BusyInterval busy = after.active()
+                    ? new BusyInterval(after.barberId(), after.id(), after.startsAt(), after.endsAt())
+                    : null;
+            apply(after.barberId(), after.startsAt(), after.endsAt(), after.id(), busy);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeOffChanged(TimeOffChangedEvent event) {
+        TimeOffSnapshot before = event.before();
+        TimeOffSnapshot after = event.after();
+        if (before != null) {
+            apply(before.barberId(), before.startsAt(), before.endsAt(), before.id(), null);
+        }
+        if (after != null) {
+            apply(after.barberId(), after.startsAt(), after.endsAt(), after.id(),
+                    new BusyInterval(after.barberId(), after.id(), after.startsAt(), after.endsAt()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkingHoursChanged(WorkingHoursChangedEvent event) {
+        invalidateBarber(event.barberId());
+    }
+
+    private DaySchedule load(Key key) {
+        OffsetDateTime from = key.day().atStartOfDay(TZ).toOffsetDateTime();
+        OffsetDateTime to   = key.day().plusDays(1).atStartOfDay(TZ).toOffsetDateTime();
+
+        List<WorkBlock> blocks = workingHoursRepo
+                .findByBarber_IdAndDayOfWeekOrderByStartTimeAsc(key.barberId(), key.day().getDayOfWeek())
+                .stream().map(WorkBlock::of).toList();
+        List<BusyInterval> busy = BusyInterval.mergeSorted(
+                appointmentRepo.findBusyIntervals(key.barberId(), from, to),
+                timeOffRepo.findBusyIntervals(key.barberId(), from, to));
+        return new DaySchedule(key.day(), TZ, blocks, busy);
+    }
+
+    private AtomicLong generation(Long barberId) {
+        return generations.computeIfAbsent(barberId, k -> new AtomicLong());
+    }
+
+    // último dia (Lisboa) tocado por um intervalo que termina em end (exclusivo)
+    private static LocalDate lastDayOf(OffsetDateTime end) {
+        return end.minusNanos(1).atZoneSameInstant(TZ).toLocalDate();
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,115 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória das reservas de slots em vigor, por barbeiro. Cada reserva expira sozinha no
+ * seu expiresAt (timer do Caffeine, sem queries nem varrimentos periódicos); as leituras ignoram
+ * também as já expiradas que ainda não tenham sido retiradas.
+ */
+@Component
+public class SlotHoldIndex {
+
+    public record Hold(UUID id, Long barberId, Long serviceId, Long clientId,
+                       OffsetDateTime startsAt, OffsetDateTime endsAt, Instant expiresAt) {
+
+        boolean activeAt(Instant now) {
+            return expiresAt.isAfter(now);
+        }
+
+        public boolean overlaps(OffsetDateTime s, OffsetDateTime e) {
+            return startsAt.isBefore(e) && endsAt.isAfter(s);
+        }
+    }
+
+    private final Cache<UUID, Hold> holds;
+    private final Map<Long, Set<Hold>> byBarber = new ConcurrentHashMap<>();
+
+    public SlotHoldIndex() {
+        this.holds = Caffeine.newBuilder()
+                .expireAfter(new Expiry<UUID, Hold>() {
+                    @Override
+                    public long expireAfterCreate(UUID id, Hold hold, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), hold.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID id, Hold hold, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, hold, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID id, Hold hold, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener((UUID id, Hold hold, RemovalCause cause) -> unindex(hold))
+                .build();
+    }
+
+    public void put(Hold hold) {
+        if (!hold.activeAt(Instant.now())) return;
+        byBarber.compute(hold.barberId(), (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(hold);
+            return set;
+        });
+        holds.put(hold.id(), hold);
+    }
+
+    public void remove(UUID id) {
+        Hold hold = holds.asMap().remove(id);
+        if (hold != null) unindex(hold);
+    }
+
+    /** A reserva, se ainda estiver em vigor. */
+    public Optional<Hold> get(UUID id) {
+        Hold hold = holds.getIfPresent(id);
+        return hold != null && hold.activeAt(Instant.now()) ? Optional.of(hold) : Optional.empty();
+    }
+
+    /** Reservas em vigor do barbeiro que se sobrepõem a [start, end), exceto {@code ignoreId}. */
+    public List<Hold> overlapping(Long barberId, OffsetDateTime start, OffsetDateTime end, UUID ignoreId) {
+        List<Hold> out = new ArrayList<>();
+        for (Hold h : active(barberId)) {
+            if (!h.id().equals(ignoreId) && h.overlaps(start, end)) out.add(h);
+        }
+        return out;
+    }
+
+    /** Retira dos inícios candidatos os que colidem com uma das reservas dadas. */
+    public static List<OffsetDateTime> withoutHeld(List<Hold> active, List<OffsetDateTime> starts, long neededMs) {
+        if (active.isEmpty()) return starts;
+        Duration needed = Duration.ofMillis(neededMs);
+        return starts.stream()
+                .filter(s -> active.stream().noneMatch(h -> h.overlaps(s, s.plus(needed))))
+                .toList();
+    }
+
+    private List<Hold> active(Long barberId) {
+        Set<Hold> set = byBarber.get(barberId);
+        if (set == null || set.isEmpty()) return List.of();
+        Instant now = Instant.now();
+        return set.stream().filter(h -> h.activeAt(now)).toList();
+    }
+
+    private void unindex(Hold hold) {
+        if (hold == null) return;
+        byBarber.computeIfPresent(hold.barberId(), (k, set) -> {
+            set.remove(hold);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
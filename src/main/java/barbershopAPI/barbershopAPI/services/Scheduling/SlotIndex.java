@@ -0,0 +1,226 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de um barbeiro/dia em granulos de {@link #GRANULE_MIN} minutos contados a partir da
+ * meia-noite de Lisboa (um dia com mudança de hora tem 92 ou 100 granulos).
+ * O bit g de {@code free} está ligado quando o granulo cabe inteiro num bloco de horário e
+ * não toca em nenhum intervalo ocupado.
+ * Encontrar inícios para uma duração D é uma leitura de sequências de bits ligados; só o
+ * granulo final, quando D não é múltiplo do granulo, é verificado em tempo exato.
+ * Como antes do índice, uma marcação tem de caber num só bloco: blocos que se tocam
+ * (09:00-12:00 e 12:00-15:00) continuam separados, e uma sequência de bits livres é cortada
+ * no primeiro granulo de cada bloco.
+ */
+public final class SlotIndex {
+
+    public static final int GRANULE_MIN = 15;
+    private static final long GRANULE_MS = GRANULE_MIN * 60_000L;
+
+    private final long dayStartMs;
+    private final int granules;
+    private final long[] work;
+    private final long[] free;
+    // primeiro granulo inteiro de cada bloco: nenhum início atravessa estes limites
+    private final long[] blockStarts;
+    // blocos de horário em [início, fim) sem sobreposições (podem tocar-se), para a verificação exata
+    private final long[] workStarts;
+    private final long[] workEnds;
+    private final BusyTimeline busy;
+
+    private SlotIndex(long dayStartMs, int granules, long[] work, long[] free, long[] blockStarts,
+                      long[] workStarts, long[] workEnds, BusyTimeline busy) {
+        this.dayStartMs = dayStartMs;
+        this.granules = granules;
+        this.work = work;
+        this.free = free;
+        this.blockStarts = blockStarts;
+        this.workStarts = workStarts;
+        this.workEnds = workEnds;
+        this.busy = busy;
+    }
+
+    public static SlotIndex build(LocalDate day, ZoneId zone, List<WorkBlock> blocks, BusyTimeline busy) {
+        long dayStartMs = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        long dayEndMs = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        int granules = (int) ((dayEndMs - dayStartMs) / GRANULE_MS);
+
+        long[][] merged = mergeBlocks(day, zone, blocks);
+        long[] workStarts = merged[0];
+        long[] workEnds = merged[1];
+
+        long[] work = new long[words(granules)];
+        long[] blockStarts = new long[words(granules)];
+        for (int b = 0; b < workStarts.length; b++) {
+            // só contam granulos que cabem inteiros no bloco
+            int from = Math.max((int) ceilDiv(workStarts[b] - dayStartMs, GRANULE_MS), 0);
+            int to = Math.min((int) Math.floorDiv(workEnds[b] - dayStartMs, GRANULE_MS), granules);
+            setRange(work, from, to);
+            if (from < to) set(blockStarts, from);
+        }
+
+        long[] free = work.clone();
+        for (int i = 0; i < busy.size(); i++) {
+            clearTouched(free, granules, dayStartMs, busy.startAt(i), busy.endAt(i));
+        }
+        return new SlotIndex(dayStartMs, granules, work, free, blockStarts, workStarts, workEnds, busy);
+    }
+
+    /**
+     * Novo índice depois de libertar {@code removed} e ocupar {@code added} (qualquer um pode
+     * ser null). Só os granulos tocados por estes dois intervalos são recalculados.
+     */
+    public SlotIndex patch(BusyTimeline newBusy, BusyInterval removed, BusyInterval added) {
+        long[] next = free.clone();
+        if (removed != null) {
+            long s = removed.start().toInstant().toEpochMilli();
+            long e = removed.end().toInstant().toEpochMilli();
+            int from = (int) Math.max(Math.floorDiv(s - dayStartMs, GRANULE_MS), 0);
+            int to = (int) Math.min(ceilDiv(e - dayStartMs, GRANULE_MS), granules);
+            for (int g = from; g < to; g++) {
+                long gs = dayStartMs + g * GRANULE_MS;
+                if (isSet(work, g) && !overlapsBusy(newBusy, gs, gs + GRANULE_MS)) set(next, g);
+            }
+        }
+        if (added != null) {
+            clearTouched(next, granules, dayStartMs,
+                    added.start().toInstant().toEpochMilli(), added.end().toInstant().toEpochMilli());
+        }
+        return new SlotIndex(dayStartMs, granules, work, next, blockStarts, workStarts, workEnds, newBusy);
+    }
+
+    /** Inícios livres (alinhados ao granulo) para uma duração {@code neededMs}, a partir de {@code notBeforeMs}. */
+    public List<OffsetDateTime> starts(long neededMs, long notBeforeMs, ZoneId zone) {
+        List<OffsetDateTime> out = new ArrayList<>();
+        int full = (int) (neededMs / GRANULE_MS);
+        long rem = neededMs % GRANULE_MS;
+        int first = (int) Math.max(ceilDiv(notBeforeMs - dayStartMs, GRANULE_MS), 0);
+        if (neededMs <= 0 || first >= granules) return out;
+
+        if (full == 0) {
+            // duração inferior a um granulo: qualquer granulo pode servir, mesmo parcialmente livre
+            for (int g = first; g < granules; g++) {
+                long s = dayStartMs + g * GRANULE_MS;
+                if (isSet(free, g) || isFreeExact(s, s + neededMs)) out.add(toOffset(s, zone));
+            }
+            return out;
+        }
+
+        int g = nextSet(free, first, granules);
+        while (g < granules) {
+            // a sequência acaba no primeiro granulo ocupado ou no início do bloco seguinte
+            int runEnd = Math.min(nextClear(free, g, granules), nextSet(blockStarts, g + 1, granules));
+            // dentro da sequência [g, runEnd) basta que os 'full' granulos seguintes estejam livres;
+            // com resto, o granulo seguinte também tem de estar livre, ou é verificado em tempo exato
+            int lastWhole = runEnd - full;
+            int lastWithTail = rem == 0 ? lastWhole : lastWhole - 1;
+            for (int c = g; c <= lastWithTail; c++) out.add(toOffset(dayStartMs + c * GRANULE_MS, zone));
+            if (rem != 0 && lastWhole >= g) {
+                // o intervalo inteiro, para o resto não cair já no bloco seguinte
+                long s = dayStartMs + (long) lastWhole * GRANULE_MS;
+                if (isFreeExact(s, s + neededMs)) out.add(toOffset(s, zone));
+            }
+            g = nextSet(free, runEnd, granules);
+        }
+        return out;
+    }
+
+    private boolean isFreeExact(long s, long e) {
+        int b = Arrays.binarySearch(workEnds, s);
+        b = b >= 0 ? b + 1 : -b - 1;
+        if (b >= workStarts.length || workStarts[b] > s || workEnds[b] < e) return false;
+        return !overlapsBusy(busy, s, e);
+    }
+
+    private static boolean overlapsBusy(BusyTimeline busy, long s, long e) {
+        int i = busy.firstEndingAfter(s);
+        return i < busy.size() && busy.startAt(i) < e;
+    }
+
+    private static long[][] mergeBlocks(LocalDate day, ZoneId zone, List<WorkBlock> blocks) {
+        long[][] raw = new long[blocks.size()][];
+        for (int i = 0; i < blocks.size(); i++) {
+            WorkBlock b = blocks.get(i);
+            raw[i] = new long[] {
+                    day.atTime(b.start()).atZone(zone).toInstant().toEpochMilli(),
+                    day.atTime(b.end()).atZone(zone).toInstant().toEpochMilli()
+            };
+        }
+        Arrays.sort(raw, (x, y) -> Long.compare(x[0], y[0]));
+        long[] starts = new long[raw.length];
+        long[] ends = new long[raw.length];
+        int n = 0;
+        for (long[] r : raw) {
+            if (r[1] <= r[0]) continue;
+            // só sobreposições verdadeiras: blocos que apenas se tocam ficam separados
+            if (n > 0 && r[0] < ends[n - 1]) {
+                ends[n - 1] = Math.max(ends[n - 1], r[1]);
+            } else {
+                starts[n] = r[0];
+                ends[n] = r[1];
+                n++;
+            }
+        }
+        return new long[][] { Arrays.copyOf(starts, n), Arrays.copyOf(ends, n) };
+    }
+
+    // limpa todos os granulos que tocam em [s, e)
+    private static void clearTouched(long[] bits, int granules, long dayStartMs, long s, long e) {
+        int from = (int) Math.max(Math.floorDiv(s - dayStartMs, GRANULE_MS), 0);
+        int to = (int) Math.min(ceilDiv(e - dayStartMs, GRANULE_MS), granules);
+        for (int g = from; g < to; g++) bits[g >>> 6] &= ~(1L << g);
+    }
+
+    private static OffsetDateTime toOffset(long ms, ZoneId zone) {
+        return Instant.ofEpochMilli(ms).atZone(zone).toOffsetDateTime();
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    private static boolean isSet(long[] bits, int g) {
+        return (bits[g >>> 6] & (1L << g)) != 0;
+    }
+
+    private static void set(long[] bits, int g) {
+        bits[g >>> 6] |= 1L << g;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int g = from; g < to; g++) set(bits, g);
+    }
+
+    private static int nextSet(long[] bits, int from, int limit) {
+        int w = from >>> 6;
+        if (w >= bits.length) return limit;
+        long word = bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return Math.min(w * 64 + Long.numberOfTrailingZeros(word), limit);
+            if (++w >= bits.length) return limit;
+            word = bits[w];
+        }
+    }
+
+    private static int nextClear(long[] bits, int from, int limit) {
+        int w = from >>> 6;
+        if (w >= bits.length) return limit;
+        long word = ~bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return Math.min(w * 64 + Long.numberOfTrailingZeros(word), limit);
+            if (++w >= bits.length) return limit;
+            word = ~bits[w];
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import barbershopAPI.barbershopAPI.entities.WorkingHours;
+
+import java.time.LocalTime;
+
+/** Bloco de horário de trabalho [start, end) em hora local de Lisboa. */
+public record WorkBlock(LocalTime start, LocalTime end) {
+    public static WorkBlock of(WorkingHours wh) {
+        return new WorkBlock(wh.getStartTime(), wh.getEndTime());
+    }
+}
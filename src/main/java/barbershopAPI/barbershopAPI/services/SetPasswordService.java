@@ -4,6 +4,7 @@ import barbershopAPI.barbershopAPI.entities.Client;
 import barbershopAPI.barbershopAPI.entities.SetPasswordToken;
 import barbershopAPI.barbershopAPI.repositories.ClientRepository;
 import barbershopAPI.barbershopAPI.repositories.SetPasswordTokenRepository;
+import barbershopAPI.barbershopAPI.services.Auth.TokenRevocationService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,8 +26,9 @@ public class SetPasswordService {
     
     private final SetPasswordTokenRepository tokenRepo;
     private final ClientRepository clientRepo;
-    private final Mailer mailer;
+    private final EmailOutboxService emailOutbox;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
     
     @Value("${FRONTEND_BASE_URL:https://example.com}")
     String frontendBaseUrl;
@@ -80,7 +82,7 @@ public class SetPasswordService {
         tokenRepo.save(setPasswordToken);
         
         var link = frontendBaseUrl.replaceAll("/+$", "") + "/definir-senha?token=" + token;
-        mailer.sendSetPasswordEmail(client.getEmail(), client.getName(), link);
+        emailOutbox.enqueueSetPasswordEmail(client.getEmail(), client.getName(), link, setPasswordToken.getExpiresAt());
         
         log.info("Email de definição de senha enviado para cliente {}", clientId);
     }
@@ -109,6 +111,8 @@ public class SetPasswordService {
         // Define a senha
         client.setPassword(passwordEncoder.encode(newPassword));
         client = clientRepo.save(client);
+        // sessões abertas com a password antiga deixam de valer
+        tokenRevocationService.revokeAllFor(client.getEmail());
         
         // Marca o token como usado
         setPasswordToken.setUsedAt(now);
@@ -0,0 +1,201 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.dto.SlotHoldDTOs.SlotHoldCreateRequest;
+import barbershopAPI.barbershopAPI.dto.SlotHoldDTOs.SlotHoldResponse;
+import barbershopAPI.barbershopAPI.entities.ServiceEntity;
+import barbershopAPI.barbershopAPI.entities.SlotHold;
+import barbershopAPI.barbershopAPI.events.SlotHoldReleasedEvent;
+import barbershopAPI.barbershopAPI.repositories.BarberRepository;
+import barbershopAPI.barbershopAPI.repositories.ServiceRepository;
+import barbershopAPI.barbershopAPI.repositories.SlotHoldRepository;
+import barbershopAPI.barbershopAPI.services.AppointmentService.SlotConflictException;
+import barbershopAPI.barbershopAPI.services.AppointmentService.TimeOffConflictException;
+import barbershopAPI.barbershopAPI.services.Scheduling.BookingLanes;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyInterval;
+import barbershopAPI.barbershopAPI.services.Scheduling.BusyIntervalIndex;
+import barbershopAPI.barbershopAPI.services.Scheduling.SlotHoldIndex;
+import barbershopAPI.barbershopAPI.services.Scheduling.SlotHoldIndex.Hold;
+import barbershopAPI.barbershopAPI.utils.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reservas temporárias de slots: entre escolher um horário na disponibilidade e concluir a marcação,
+ * o intervalo fica reservado durante SLOT_HOLD_TTL_S e não aparece como livre a mais ninguém.
+ * A marcação criada com o holdId consome a reserva.
+ *
+ * Cada reserva pertence ao cliente autenticado que a criou: só ele a pode libertar ou consumir,
+ * e cada cliente tem no máximo SLOT_HOLD_MAX_PER_CLIENT reservas em vigor.
+ *
+ * As reservas vivem no SlotHoldIndex (expiram sozinhas em memória) e são escritas em slot_hold,
+ * de onde são recuperadas no arranque. O índice só conhece as reservas desta instância: quem
+ * precisa de saber se um horário está reservado (criar reservas e marcações, disponibilidade)
+ * consulta também a tabela, onde estão as de todas. As linhas expiradas são apagadas aproveitando
+ * a escrita seguinte.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlotHoldService {
+
+    private final SlotHoldRepository holdRepo;
+    private final BarberRepository barberRepo;
+    private final ServiceRepository serviceRepo;
+    private final SlotHoldIndex index;
+    private final BusyIntervalIndex busyIndex;
+    private final BookingLanes lanes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+
+    @Value("${SLOT_HOLD_TTL_S:300}")
+    private long ttlSeconds;
+
+    @Value("${SLOT_HOLD_MAX_PER_CLIENT:3}")
+    private long maxPerClient;
+
+    public SlotHoldResponse create(SlotHoldCreateRequest req, Long clientId) {
+        if (!barberRepo.existsById(req.barberId())) throw new ResourceNotFoundException("Barber not found");
+        ServiceEntity service = serviceRepo.findById(req.serviceId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
+        if (req.startsAt().isBefore(OffsetDateTime.now())) {
+            throw new IllegalArgumentException("Não é possível reservar um horário no passado");
+        }
+        int mins = service.getDurationMin() + (service.getBufferAfterMin() == null ? 0 : service.getBufferAfterMin());
+        OffsetDateTime startsAt = req.startsAt();
+        OffsetDateTime endsAt = startsAt.plusMinutes(mins);
+
+        // na vez do barbeiro, como as marcações: duas reservas para o mesmo slot não passam as duas
+        return lanes.run(req.barberId(), () -> {
+            List<BusyInterval> busy = busyIndex.overlapping(req.barberId(), startsAt, endsAt);
+            if (busy.stream().anyMatch(b -> !b.isTimeOff())) {
+                throw new SlotConflictException("Slot já ocupado para este barbeiro");
+            }
+            if (!busy.isEmpty()) {
+                throw new TimeOffConflictException("O barbeiro está de folga neste período");
+            }
+            if (!index.overlapping(req.barberId(), startsAt, endsAt, null).isEmpty()) {
+                throw new SlotConflictException("Horário reservado temporariamente por outro cliente");
+            }
+
+            SlotHold saved = transactionTemplate.execute(status -> {
+                var now = OffsetDateTime.now(ZoneOffset.UTC);
+                if (holdRepo.countActiveByClient(clientId, now) >= maxPerClient) {
+                    throw new IllegalStateException("Limite de " + maxPerClient + " reservas de horários em vigor atingido");
+                }
+                if (holdRepo.existsActiveOverlap(req.barberId(), startsAt, endsAt, now)) {
+                    throw new SlotConflictException("Horário reservado temporariamente por outro cliente");
+                }
+                holdRepo.deleteExpired(now);
+                return holdRepo.save(SlotHold.builder()
+                        .barberId(req.barberId())
+                        .serviceId(req.serviceId())
+                        .clientId(clientId)
+                        .startsAt(startsAt)
+                        .endsAt(endsAt)
+                        .expiresAt(now.plusSeconds(ttlSeconds))
+                        .createdAt(now)
+                        .build());
+            });
+            index.put(toHold(saved));
+            return toResponse(saved);
+        });
+    }
+
+    /** Liberta a reserva do cliente; uma reserva que já não existe não dá erro. */
+    public void release(UUID id, Long clientId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            var hold = holdRepo.findById(id);
+            if (hold.isEmpty()) return;
+            if (!clientId.equals(hold.get().getClientId())) throw new ResourceNotFoundException("Slot hold not found");
+            holdRepo.deleteById(id);
+            events.publishEvent(new SlotHoldReleasedEvent(id));
+        });
+    }
+
+    /**
+     * Converte a reserva numa marcação: tem de estar em vigor e ser do mesmo cliente, barbeiro e início.
+     * Corre na transação da marcação; a reserva sai do índice depois do commit.
+     */
+    public Hold consume(UUID id, Long clientId, Long barberId, OffsetDateTime startsAt) {
+        Hold hold = index.get(id)
+                .or(() -> holdRepo.findById(id)
+                        .filter(h -> h.getExpiresAt().isAfter(OffsetDateTime.now()))
+                        .map(SlotHoldService::toHold))
+                .orElseThrow(() -> new IllegalStateException("A reserva do horário expirou ou não existe"));
+        if (!clientId.equals(hold.clientId())) {
+            throw new IllegalArgumentException("A reserva do horário pertence a outro cliente");
+        }
+        if (!hold.barberId().equals(barberId) || !hold.startsAt().isEqual(startsAt)) {
+            throw new IllegalArgumentException("A reserva não corresponde ao barbeiro e horário pedidos");
+        }
+        holdRepo.deleteById(id);
+        events.publishEvent(new SlotHoldReleasedEvent(id));
+        return hold;
+    }
+
+    /**
+     * Há uma reserva em vigor, exceto {@code ignoreId}, a tocar em [start, end)? Primeiro o índice local;
+     * se não tiver nenhuma, a tabela, onde estão também as reservas feitas noutras instâncias.
+     */
+    public boolean isHeld(Long barberId, OffsetDateTime start, OffsetDateTime end, UUID ignoreId) {
+        if (!index.overlapping(barberId, start, end, ignoreId).isEmpty()) return true;
+        return holdRepo.findActiveOverlapping(List.of(barberId), start, end, OffsetDateTime.now(ZoneOffset.UTC))
+                .stream().anyMatch(h -> !h.getId().equals(ignoreId));
+    }
+
+    /**
+     * Reservas em vigor dos barbeiros que se sobrepõem a [from, to), por barbeiro: as do índice local
+     * mais as que só existem na tabela (feitas noutras instâncias), numa única query.
+     */
+    public Map<Long, List<Hold>> activeOverlapping(Collection<Long> barberIds, OffsetDateTime from, OffsetDateTime to) {
+        Map<UUID, Hold> byId = new LinkedHashMap<>();
+        for (Long barberId : barberIds) {
+            index.overlapping(barberId, from, to, null).forEach(h -> byId.put(h.id(), h));
+        }
+        holdRepo.findActiveOverlapping(barberIds, from, to, OffsetDateTime.now(ZoneOffset.UTC))
+                .forEach(h -> byId.putIfAbsent(h.getId(), toHold(h)));
+        return byId.values().stream().collect(Collectors.groupingBy(Hold::barberId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReleased(SlotHoldReleasedEvent event) {
+        index.remove(event.holdId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActive() {
+        try {
+            List<SlotHold> active = holdRepo.findAllByExpiresAtAfter(OffsetDateTime.now(ZoneOffset.UTC));
+            active.forEach(h -> index.put(toHold(h)));
+            if (!active.isEmpty()) log.info("Recuperadas {} reservas de slots em vigor", active.size());
+        } catch (Exception e) {
+            log.warn("Falha ao carregar reservas de slots: {}", e.getMessage());
+        }
+    }
+
+    private static Hold toHold(SlotHold h) {
+        return new Hold(h.getId(), h.getBarberId(), h.getServiceId(), h.getClientId(),
+                h.getStartsAt(), h.getEndsAt(), h.getExpiresAt().toInstant());
+    }
+
+    private static SlotHoldResponse toResponse(SlotHold h) {
+        return new SlotHoldResponse(h.getId(), h.getBarberId(), h.getServiceId(),
+                h.getStartsAt(), h.getEndsAt(), h.getExpiresAt());
+    }
+}
@@ -0,0 +1,6 @@
+-- Índice parcial para a query de lembretes por enviar: só contém marcações ativas ainda sem
+-- lembrete, por isso a pesquisa pela janela de starts_at é sempre um range scan curto,
+-- independentemente do histórico acumulado na tabela
+CREATE INDEX IF NOT EXISTS idx_appointment_reminder_due
+    ON appointment (starts_at)
+    WHERE reminder_sent_at IS NULL AND is_active;
@@ -0,0 +1,17 @@
+-- Outbox de emails: escrito na transação de negócio e drenado em lotes pelo EmailOutboxService
+CREATE TABLE email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(32) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    recipient_name VARCHAR(100),
+    link VARCHAR(1024),
+    appointment_id UUID,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    last_error VARCHAR(1000),
+    failed_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- Só as linhas ainda por enviar interessam ao worker
+CREATE INDEX idx_email_outbox_due ON email_outbox (next_attempt_at) WHERE failed_at IS NULL;
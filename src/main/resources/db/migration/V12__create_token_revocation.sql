@@ -0,0 +1,12 @@
+-- Revogação de JWT: por jti (logout) ou por utilizador a partir de not_before (mudança de password)
+CREATE TABLE token_revocation (
+    id BIGSERIAL PRIMARY KEY,
+    jti VARCHAR(64),
+    subject VARCHAR(255),
+    not_before TIMESTAMPTZ,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_token_revocation_expires ON token_revocation (expires_at);
+CREATE INDEX idx_token_revocation_created ON token_revocation (created_at);
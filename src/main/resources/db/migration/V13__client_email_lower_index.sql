@@ -0,0 +1,13 @@
+-- Emails passam a ser guardados em minúsculas; normalizar os existentes, exceto quando isso
+-- colidiria com outro cliente (esses ficam como estão e continuam a ser encontrados pelo índice)
+UPDATE client c
+SET email = lower(trim(c.email))
+WHERE c.email IS NOT NULL
+  AND c.email <> lower(trim(c.email))
+  AND NOT EXISTS (
+      SELECT 1 FROM client o
+      WHERE o.id <> c.id AND lower(trim(o.email)) = lower(trim(c.email))
+  );
+
+-- Pesquisa por email sem distinguir maiúsculas (login, refresh, registo) passa a ser um index seek
+CREATE INDEX IF NOT EXISTS idx_client_email_lower ON client (lower(email));
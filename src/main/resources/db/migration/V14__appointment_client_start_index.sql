@@ -0,0 +1,2 @@
+-- Histórico do cliente (/appointments/my): filtro por cliente e paginação por starts_at
+CREATE INDEX IF NOT EXISTS idx_appointment_client_start ON appointment (client_id, starts_at);
@@ -0,0 +1,10 @@
+-- Feed de notificações paginado por (created_at, id), mais recentes primeiro
+CREATE INDEX IF NOT EXISTS idx_notifications_created_id ON notifications (created_at DESC, id DESC);
+
+-- Não lidas (e lidas) pela mesma ordem; serve também a contagem de não lidas
+CREATE INDEX IF NOT EXISTS idx_notifications_read_created ON notifications (read_status, created_at DESC, id DESC);
+
+-- Substituídos pelos índices compostos acima
+DROP INDEX IF EXISTS idx_notifications_created_at;
+DROP INDEX IF EXISTS idx_notifications_read_status;
+DROP INDEX IF EXISTS idx_notifications_unread;
@@ -0,0 +1,14 @@
+-- Reservas temporárias de slots durante o checkout; deixam de contar a partir de expires_at
+CREATE TABLE slot_hold (
+    id UUID PRIMARY KEY,
+    barber_id BIGINT NOT NULL REFERENCES barber(id),
+    service_id BIGINT NOT NULL REFERENCES service(id),
+    client_id BIGINT REFERENCES client(id),
+    starts_at TIMESTAMPTZ NOT NULL,
+    ends_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_slot_hold_barber_start ON slot_hold (barber_id, starts_at);
+CREATE INDEX idx_slot_hold_expires ON slot_hold (expires_at);
@@ -0,0 +1,17 @@
+-- Respostas de POST /appointments com Idempotency-Key, devolvidas aos retries até expires_at
+CREATE TABLE idempotency_key (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    appointment_id UUID NOT NULL,
+    barber_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    client_id BIGINT NOT NULL,
+    starts_at TIMESTAMPTZ NOT NULL,
+    ends_at TIMESTAMPTZ NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    notes TEXT,
+    expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_idempotency_key_expires ON idempotency_key (expires_at);
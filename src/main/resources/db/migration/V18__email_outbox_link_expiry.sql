@@ -0,0 +1,8 @@
+-- O link dos emails leva o token em claro: passa a ter a expiração do token e é apagado
+-- quando o email falha de vez ou o token expira
+ALTER TABLE email_outbox ADD COLUMN link_expires_at TIMESTAMPTZ;
+
+UPDATE email_outbox SET link = NULL WHERE failed_at IS NOT NULL;
+
+-- linhas já em fila: limite pelo token mais longo (definição de senha, 48h)
+UPDATE email_outbox SET link_expires_at = created_at + INTERVAL '48 hours' WHERE link IS NOT NULL;
@@ -0,0 +1,3 @@
+-- A Idempotency-Key passa a valer por cliente: dois clientes podem usar a mesma chave
+ALTER TABLE idempotency_key DROP CONSTRAINT idempotency_key_pkey;
+ALTER TABLE idempotency_key ADD PRIMARY KEY (client_id, idempotency_key);
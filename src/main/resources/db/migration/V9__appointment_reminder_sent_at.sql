@@ -0,0 +1,3 @@
+-- Registo persistente dos lembretes enviados (antes era um HashSet em memória no scheduler,
+-- perdido a cada restart e não partilhado entre réplicas)
+ALTER TABLE appointment ADD COLUMN reminder_sent_at TIMESTAMPTZ;
@@ -0,0 +1,30 @@
+package barbershopAPI.barbershopAPI.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+class AsyncConfigTests {
+
+	@Autowired
+	private RequestMappingHandlerAdapter handlerAdapter;
+
+	@Autowired
+	@Qualifier("applicationTaskExecutor")
+	private ThreadPoolTaskExecutor applicationTaskExecutor;
+
+	@Test
+	void mvcAsyncUsesBoundedApplicationTaskExecutor() {
+		assertSame(applicationTaskExecutor, ReflectionTestUtils.getField(handlerAdapter, "taskExecutor"));
+		assertEquals(16, applicationTaskExecutor.getMaxPoolSize());
+		assertEquals(100, applicationTaskExecutor.getQueueCapacity());
+	}
+}
@@ -0,0 +1,94 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.dto.DashboardStats;
+import barbershopAPI.barbershopAPI.enums.AppointmentStatus;
+import barbershopAPI.barbershopAPI.events.AppointmentSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DashboardCountersTests {
+
+	private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+	// quarta-feira; a semana começa na segunda 2026-03-30 e o mês em 2026-04-01
+	private static final LocalDate TODAY = LocalDate.of(2026, 4, 1);
+	private static final LocalDate WEEK_START = LocalDate.of(2026, 3, 30);
+
+	private final DashboardCounters counters = new DashboardCounters(TODAY, WEEK_START, TZ, Map.of(
+			1L, new DashboardCounters.ServiceInfo("Corte", 1500),
+			2L, new DashboardCounters.ServiceInfo("Barba", 800)));
+
+	@Test
+	void applyAndRemoveCancelOut() {
+		var a = appointment(1L, TODAY, AppointmentStatus.SCHEDULED);
+		counters.apply(a, 1);
+		DashboardStats stats = counters.toStats();
+		assertEquals(1, stats.getTodayAppointments());
+		assertEquals(1, stats.getTotalAppointments());
+		assertEquals(15.0, stats.getMonthlyRevenue());
+		assertEquals(1, stats.getPopularServices().size());
+
+		counters.apply(a, -1);
+		stats = counters.toStats();
+		assertEquals(0, stats.getTodayAppointments());
+		assertEquals(0, stats.getTotalAppointments());
+		assertEquals(0.0, stats.getMonthlyRevenue());
+		assertTrue(stats.getPopularServices().isEmpty());
+	}
+
+	@Test
+	void cancellationKeepsMonthTotalButDropsWeekAndRevenue() {
+		var scheduled = appointment(2L, TODAY, AppointmentStatus.SCHEDULED);
+		var cancelled = new AppointmentSnapshot(scheduled.id(), scheduled.barberId(), scheduled.serviceId(),
+				scheduled.clientId(), scheduled.startsAt(), scheduled.endsAt(), AppointmentStatus.CANCELLED, false);
+		counters.apply(scheduled, 1);
+		counters.apply(scheduled, -1);
+		counters.apply(cancelled, 1);
+
+		DashboardStats stats = counters.toStats();
+		assertEquals(0, stats.getTodayAppointments());
+		assertEquals(1, stats.getTotalAppointments());
+		assertEquals(0.0, stats.getMonthlyRevenue());
+		assertTrue(stats.getPopularServices().isEmpty());
+	}
+
+	@Test
+	void weekAndMonthBoundaries() {
+		// segunda 30/03: na semana, mas no mês anterior
+		counters.apply(appointment(1L, WEEK_START, AppointmentStatus.SCHEDULED), 1);
+		// segunda seguinte: fora da semana, dentro do mês
+		counters.apply(appointment(1L, WEEK_START.plusDays(7), AppointmentStatus.SCHEDULED), 1);
+
+		DashboardStats stats = counters.toStats();
+		assertEquals(1, stats.getWeekStats().get(0).getAppointments());
+		assertEquals(1, stats.getTotalAppointments());
+		assertEquals(15.0, stats.getMonthlyRevenue());
+	}
+
+	@Test
+	void dayIsTakenInShopTimeZone() {
+		// 23:30 em Lisboa (horário de verão) já é o dia seguinte em UTC+02
+		var late = OffsetDateTime.of(TODAY.atTime(23, 30), TZ.getRules().getOffset(TODAY.atTime(23, 30)))
+				.withOffsetSameInstant(ZoneOffset.ofHours(2));
+		var a = new AppointmentSnapshot(UUID.randomUUID(), 1L, 1L, 1L, late, late.plusMinutes(30),
+				AppointmentStatus.SCHEDULED, true);
+		assertTrue(counters.touchesToday(a));
+		assertFalse(counters.touchesToday(appointment(1L, TODAY.plusDays(1), AppointmentStatus.SCHEDULED)));
+	}
+
+	private static AppointmentSnapshot appointment(Long serviceId, LocalDate day, AppointmentStatus status) {
+		var start = day.atTime(LocalTime.of(10, 0)).atZone(TZ).toOffsetDateTime();
+		return new AppointmentSnapshot(UUID.randomUUID(), 1L, serviceId, 1L, start, start.plusMinutes(30),
+				status, status != AppointmentStatus.CANCELLED);
+	}
+}
@@ -0,0 +1,44 @@
+package barbershopAPI.barbershopAPI.services;
+
+import barbershopAPI.barbershopAPI.dto.AppointmentDTOs.CreateAppointmentRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class IdempotencyServiceTests {
+
+	private static final OffsetDateTime START = OffsetDateTime.of(2026, 4, 1, 10, 0, 0, 0, ZoneOffset.ofHours(1));
+
+	@Test
+	void sameInstantWithDifferentOffsetHashesTheSame() {
+		var lisbon = new CreateAppointmentRequest(1L, 2L, 3L, START, "nota", null);
+		var utc = new CreateAppointmentRequest(1L, 2L, 3L, START.withOffsetSameInstant(ZoneOffset.UTC), "nota", null);
+		assertEquals(IdempotencyService.hash(lisbon), IdempotencyService.hash(utc));
+	}
+
+	@Test
+	void everyFieldChangesTheHash() {
+		var base = new CreateAppointmentRequest(1L, 2L, 3L, START, "nota", null);
+		String hash = IdempotencyService.hash(base);
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(9L, 2L, 3L, START, "nota", null)));
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(1L, 9L, 3L, START, "nota", null)));
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(1L, 2L, 9L, START, "nota", null)));
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(1L, 2L, 3L, START.plusMinutes(1), "nota", null)));
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(1L, 2L, 3L, START, "outra", null)));
+		assertNotEquals(hash, IdempotencyService.hash(new CreateAppointmentRequest(1L, 2L, 3L, START, "nota", UUID.randomUUID())));
+	}
+
+	@Test
+	void missingNotesDifferFromLiteralText() {
+		var none = new CreateAppointmentRequest(1L, 2L, 3L, START, null, null);
+		var dash = new CreateAppointmentRequest(1L, 2L, 3L, START, "-", null);
+		var nullText = new CreateAppointmentRequest(1L, 2L, 3L, START, "null", null);
+		assertNotEquals(IdempotencyService.hash(none), IdempotencyService.hash(dash));
+		assertNotEquals(IdempotencyService.hash(none), IdempotencyService.hash(nullText));
+	}
+}
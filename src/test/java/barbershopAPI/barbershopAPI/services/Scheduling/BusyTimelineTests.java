@@ -0,0 +1,65 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BusyTimelineTests {
+
+	private static final OffsetDateTime T0 = OffsetDateTime.of(2026, 4, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+	@Test
+	void overlappingAndTouchingIntervalsAreMerged() {
+		BusyTimeline timeline = BusyTimeline.of(List.of(
+				interval(1L, 0, 30),
+				interval(2L, 15, 45),
+				interval(3L, 45, 60),
+				interval(4L, 90, 120)));
+
+		assertEquals(2, timeline.size());
+		assertEquals(ms(0), timeline.startAt(0));
+		assertEquals(ms(60), timeline.endAt(0));
+		assertEquals(ms(90), timeline.startAt(1));
+		assertEquals(ms(120), timeline.endAt(1));
+	}
+
+	@Test
+	void containedIntervalKeepsLongerEnd() {
+		BusyTimeline timeline = BusyTimeline.of(List.of(interval(1L, 0, 120), interval(2L, 30, 60)));
+
+		assertEquals(1, timeline.size());
+		assertEquals(ms(120), timeline.endAt(0));
+	}
+
+	@Test
+	void firstEndingAfterTreatsEndsAsExclusive() {
+		BusyTimeline timeline = BusyTimeline.of(List.of(interval(1L, 0, 30), interval(2L, 60, 90)));
+
+		assertEquals(0, timeline.firstEndingAfter(ms(-10)));
+		assertEquals(0, timeline.firstEndingAfter(ms(29)));
+		// um intervalo que acaba exatamente em ms já não conta
+		assertEquals(1, timeline.firstEndingAfter(ms(30)));
+		assertEquals(1, timeline.firstEndingAfter(ms(45)));
+		assertEquals(2, timeline.firstEndingAfter(ms(90)));
+	}
+
+	@Test
+	void emptyTimeline() {
+		BusyTimeline timeline = BusyTimeline.of(List.of());
+
+		assertEquals(0, timeline.size());
+		assertEquals(0, timeline.firstEndingAfter(ms(0)));
+	}
+
+	private static BusyInterval interval(Long id, long startMin, long endMin) {
+		return new BusyInterval(1L, id, T0.plusMinutes(startMin), T0.plusMinutes(endMin));
+	}
+
+	private static long ms(long minutes) {
+		return T0.plusMinutes(minutes).toInstant().toEpochMilli();
+	}
+}
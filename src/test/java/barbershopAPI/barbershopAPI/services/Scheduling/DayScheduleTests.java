@@ -0,0 +1,105 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DayScheduleTests {
+
+	private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+	private static final LocalDate DAY = LocalDate.of(2026, 4, 1);
+	private static final List<WorkBlock> BLOCKS = List.of(
+			new WorkBlock(LocalTime.of(9, 0), LocalTime.of(13, 0)),
+			new WorkBlock(LocalTime.of(14, 0), LocalTime.of(19, 0)));
+	private static final List<Integer> DURATIONS = List.of(10, 15, 30, 45, 60);
+
+	@Test
+	void addingMatchesRebuild() {
+		var a = appointment(at(10, 0), at(10, 30));
+		var b = appointment(at(15, 5), at(15, 50));
+		DaySchedule base = new DaySchedule(DAY, TZ, BLOCKS, List.of(a));
+
+		DaySchedule changed = base.withChange(null, b);
+
+		assertEquals(List.of(a, b), changed.busy());
+		assertSameStarts(new DaySchedule(DAY, TZ, BLOCKS, List.of(a, b)), changed);
+	}
+
+	@Test
+	void movingMatchesRebuild() {
+		var a = appointment(at(10, 0), at(10, 30));
+		var moved = new BusyInterval(1L, a.id(), at(11, 10), at(11, 40));
+		DaySchedule base = new DaySchedule(DAY, TZ, BLOCKS, List.of(a));
+
+		DaySchedule changed = base.withChange(a.id(), moved);
+
+		assertEquals(List.of(moved), changed.busy());
+		assertSameStarts(new DaySchedule(DAY, TZ, BLOCKS, List.of(moved)), changed);
+	}
+
+	@Test
+	void removingFreesOnlyWhatNoOtherIntervalHolds() {
+		var a = appointment(at(10, 0), at(10, 45));
+		var b = appointment(at(10, 30), at(11, 0));
+		DaySchedule base = new DaySchedule(DAY, TZ, BLOCKS, List.of(a, b));
+
+		DaySchedule changed = base.withChange(a.id(), null);
+
+		assertEquals(List.of(b), changed.busy());
+		assertSameStarts(new DaySchedule(DAY, TZ, BLOCKS, List.of(b)), changed);
+	}
+
+	@Test
+	void applyingTheSameChangeTwiceIsIdempotent() {
+		var a = appointment(at(10, 0), at(10, 30));
+		DaySchedule once = new DaySchedule(DAY, TZ, BLOCKS, List.of()).withChange(a.id(), a);
+		DaySchedule twice = once.withChange(a.id(), a);
+
+		assertEquals(List.of(a), twice.busy());
+		assertSameStarts(once, twice);
+	}
+
+	@Test
+	void changesOutsideTheDayAreIgnored() {
+		DaySchedule base = new DaySchedule(DAY, TZ, BLOCKS, List.of());
+		var tomorrow = appointment(at(10, 0).plusDays(1), at(10, 30).plusDays(1));
+
+		assertSame(base, base.withChange(UUID.randomUUID(), tomorrow));
+		assertSame(base, base.withChange(UUID.randomUUID(), null));
+	}
+
+	@Test
+	void intervalCrossingMidnightCountsOnTheDay() {
+		var overnight = new BusyInterval(1L, 7L, at(18, 0), at(18, 0).plusHours(8));
+		DaySchedule changed = new DaySchedule(DAY, TZ, BLOCKS, List.of()).withChange(null, overnight);
+
+		assertEquals(List.of(overnight), changed.overlapping(at(18, 30), at(19, 0)));
+		assertSameStarts(new DaySchedule(DAY, TZ, BLOCKS, List.of(overnight)), changed);
+	}
+
+	private static void assertSameStarts(DaySchedule expected, DaySchedule actual) {
+		long dayStart = DAY.atStartOfDay(TZ).toInstant().toEpochMilli();
+		for (int minutes : DURATIONS) {
+			long needed = Duration.ofMinutes(minutes).toMillis();
+			assertEquals(expected.index().starts(needed, dayStart, TZ), actual.index().starts(needed, dayStart, TZ),
+					minutes + " min");
+		}
+	}
+
+	private static BusyInterval appointment(OffsetDateTime start, OffsetDateTime end) {
+		return new BusyInterval(1L, UUID.randomUUID(), start, end);
+	}
+
+	private static OffsetDateTime at(int hour, int minute) {
+		return DAY.atTime(hour, minute).atZone(TZ).toOffsetDateTime();
+	}
+}
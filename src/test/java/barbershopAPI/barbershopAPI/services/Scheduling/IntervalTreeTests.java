@@ -0,0 +1,113 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTests {
+
+	private static final OffsetDateTime T0 = OffsetDateTime.of(2026, 4, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+	@Test
+	void overlapIsHalfOpen() {
+		IntervalTree tree = new IntervalTree(T0);
+		tree.put(interval(1L, 60, 90));
+
+		assertTrue(tree.overlapping(at(30), at(60)).isEmpty());
+		assertTrue(tree.overlapping(at(90), at(120)).isEmpty());
+		assertEquals(1, tree.overlapping(at(89), at(120)).size());
+		assertEquals(1, tree.overlapping(at(70), at(80)).size());
+	}
+
+	@Test
+	void putReplacesIntervalWithSameId() {
+		IntervalTree tree = new IntervalTree(T0);
+		tree.put(interval(1L, 60, 90));
+		tree.put(interval(1L, 200, 230));
+
+		assertEquals(1, tree.size());
+		assertTrue(tree.overlapping(at(60), at(90)).isEmpty());
+		assertEquals(List.of(interval(1L, 200, 230)), tree.overlapping(at(0), at(300)));
+	}
+
+	@Test
+	void removeUnknownIdIsNoOp() {
+		IntervalTree tree = new IntervalTree(T0);
+		tree.put(interval(1L, 60, 90));
+		tree.remove(2L);
+		tree.remove(1L);
+		tree.remove(1L);
+
+		assertEquals(0, tree.size());
+		assertTrue(tree.overlapping(at(0), at(300)).isEmpty());
+	}
+
+	@Test
+	void longIntervalIsFoundFromAnySubtree() {
+		// um intervalo comprido no início tem de ser encontrado mesmo com muitos nós à direita
+		IntervalTree tree = new IntervalTree(T0);
+		tree.put(interval(0L, 0, 10_000));
+		for (long i = 1; i <= 100; i++) tree.put(interval(i, i * 10, i * 10 + 5));
+
+		List<BusyInterval> found = tree.overlapping(at(5_000), at(5_001));
+		assertEquals(List.of(interval(0L, 0, 10_000)), found);
+	}
+
+	@Test
+	void matchesBruteForceUnderRandomOperations() {
+		Random random = new Random(42);
+		IntervalTree tree = new IntervalTree(T0);
+		Map<Long, BusyInterval> reference = new HashMap<>();
+
+		for (int op = 0; op < 20_000; op++) {
+			long id = random.nextInt(300);
+			int kind = random.nextInt(10);
+			if (kind < 5) {
+				long start = random.nextInt(5_000);
+				BusyInterval b = interval(id, start, start + 1 + random.nextInt(240));
+				tree.put(b);
+				reference.put(id, b);
+			} else if (kind < 7) {
+				tree.remove(id);
+				reference.remove(id);
+			} else {
+				long start = random.nextInt(5_200);
+				OffsetDateTime s = at(start);
+				OffsetDateTime e = at(start + 1 + random.nextInt(300));
+				List<BusyInterval> expected = reference.values().stream()
+						.filter(b -> b.overlaps(s, e))
+						.sorted(BusyInterval.BY_START.thenComparing(b -> b.id().toString()))
+						.toList();
+				assertEquals(expected, tree.overlapping(s, e), "operação " + op);
+			}
+			assertEquals(reference.size(), tree.size());
+		}
+	}
+
+	@Test
+	void resultsAreOrderedByStart() {
+		IntervalTree tree = new IntervalTree(T0);
+		for (long i = 0; i < 50; i++) tree.put(interval(i, (i * 37) % 500, (i * 37) % 500 + 100));
+
+		List<BusyInterval> found = tree.overlapping(at(0), at(1_000));
+		assertEquals(50, found.size());
+		assertEquals(found.stream().sorted(Comparator.comparing(BusyInterval::start)).toList(), found);
+	}
+
+	private static BusyInterval interval(Long id, long startMin, long endMin) {
+		return new BusyInterval(1L, id, at(startMin), at(endMin));
+	}
+
+	private static OffsetDateTime at(long minutes) {
+		return T0.plusMinutes(minutes);
+	}
+}
@@ -0,0 +1,205 @@
+package barbershopAPI.barbershopAPI.services.Scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotIndexTests {
+
+	private static final ZoneId TZ = ZoneId.of("Europe/Lisbon");
+	private static final LocalDate DAY = LocalDate.of(2026, 4, 1);
+	// mudanças de hora em Lisboa: 23 h e 25 h
+	private static final LocalDate SPRING_FORWARD = LocalDate.of(2026, 3, 29);
+	private static final LocalDate FALL_BACK = LocalDate.of(2026, 10, 25);
+	private static final long NO_CUTOFF = 0L;
+
+	@Test
+	void touchingBlocksStaySeparate() {
+		var blocks = List.of(block(9, 0, 12, 0), block(12, 0, 15, 0));
+		List<OffsetDateTime> starts = starts(DAY, blocks, List.of(), 60, NO_CUTOFF);
+
+		assertTrue(starts.contains(at(DAY, 11, 0)));
+		assertFalse(starts.contains(at(DAY, 11, 15)));
+		assertFalse(starts.contains(at(DAY, 11, 45)));
+		assertTrue(starts.contains(at(DAY, 12, 0)));
+		assertEquals(reference(DAY, blocks, List.of(), 60, NO_CUTOFF), starts);
+	}
+
+	@Test
+	void touchingBlocksWithPartialTailStaySeparate() {
+		// 40 min = 2 granulos + resto: o resto não pode cair no bloco seguinte
+		var blocks = List.of(block(9, 0, 12, 0), block(12, 0, 15, 0));
+		List<OffsetDateTime> starts = starts(DAY, blocks, List.of(), 40, NO_CUTOFF);
+
+		assertTrue(starts.contains(at(DAY, 11, 15)));
+		assertFalse(starts.contains(at(DAY, 11, 30)));
+		assertEquals(reference(DAY, blocks, List.of(), 40, NO_CUTOFF), starts);
+	}
+
+	@Test
+	void overlappingBlocksAreMerged() {
+		var blocks = List.of(block(9, 0, 12, 0), block(11, 0, 14, 0));
+		List<OffsetDateTime> starts = starts(DAY, blocks, List.of(), 60, NO_CUTOFF);
+
+		assertTrue(starts.contains(at(DAY, 11, 30)));
+		assertEquals(at(DAY, 13, 0), starts.get(starts.size() - 1));
+	}
+
+	@Test
+	void partialGranulesAtBlockEdges() {
+		var blocks = List.of(block(9, 10, 11, 50));
+		List<OffsetDateTime> starts = starts(DAY, blocks, List.of(), 20, NO_CUTOFF);
+
+		assertEquals(at(DAY, 9, 15), starts.get(0));
+		// 11:30 + 20 min acaba exatamente no fim do bloco
+		assertEquals(at(DAY, 11, 30), starts.get(starts.size() - 1));
+		assertEquals(reference(DAY, blocks, List.of(), 20, NO_CUTOFF), starts);
+	}
+
+	@Test
+	void busyIntervalInsideGranule() {
+		var blocks = List.of(block(9, 0, 12, 0));
+		var busy = List.of(busy(1L, at(DAY, 10, 5), at(DAY, 10, 20)));
+
+		List<OffsetDateTime> thirty = starts(DAY, blocks, busy, 30, NO_CUTOFF);
+		assertFalse(thirty.contains(at(DAY, 9, 45)));
+		assertFalse(thirty.contains(at(DAY, 10, 15)));
+		assertTrue(thirty.contains(at(DAY, 10, 30)));
+		assertEquals(reference(DAY, blocks, busy, 30, NO_CUTOFF), thirty);
+
+		// menos de um granulo: 10:00-10:05 cabe antes do intervalo ocupado
+		List<OffsetDateTime> five = starts(DAY, blocks, busy, 5, NO_CUTOFF);
+		assertTrue(five.contains(at(DAY, 10, 0)));
+		assertFalse(five.contains(at(DAY, 10, 15)));
+		assertEquals(reference(DAY, blocks, busy, 5, NO_CUTOFF), five);
+	}
+
+	@Test
+	void nowCutoffSkipsStartedGranules() {
+		var blocks = List.of(block(9, 0, 12, 0));
+		long midGranule = at(DAY, 10, 7).toInstant().toEpochMilli();
+		long onGranule = at(DAY, 10, 15).toInstant().toEpochMilli();
+
+		assertEquals(at(DAY, 10, 15), starts(DAY, blocks, List.of(), 30, midGranule).get(0));
+		assertEquals(at(DAY, 10, 15), starts(DAY, blocks, List.of(), 30, onGranule).get(0));
+		assertTrue(starts(DAY, blocks, List.of(), 30, at(DAY, 12, 0).toInstant().toEpochMilli()).isEmpty());
+	}
+
+	@Test
+	void daylightSavingDays() {
+		var blocks = List.of(block(0, 0, 4, 0), block(9, 0, 13, 0));
+		for (LocalDate day : List.of(SPRING_FORWARD, FALL_BACK)) {
+			for (int minutes : List.of(15, 30, 50, 60)) {
+				assertEquals(reference(day, blocks, List.of(), minutes, NO_CUTOFF),
+						starts(day, blocks, List.of(), minutes, NO_CUTOFF), day + " " + minutes);
+			}
+		}
+		// 00:00-04:00 tem 3 h no dia em que se adianta a hora e 5 h no dia em que se atrasa
+		assertEquals(12 - 3, starts(SPRING_FORWARD, List.of(block(0, 0, 4, 0)), List.of(), 60, NO_CUTOFF).size());
+		assertEquals(20 - 3, starts(FALL_BACK, List.of(block(0, 0, 4, 0)), List.of(), 60, NO_CUTOFF).size());
+	}
+
+	@Test
+	void patchMatchesRebuild() {
+		var blocks = List.of(block(9, 0, 12, 0), block(12, 0, 18, 0));
+		var a = busy(1L, at(DAY, 10, 5), at(DAY, 10, 50));
+		var b = busy(2L, at(DAY, 11, 40), at(DAY, 12, 25));
+		long dayStart = DAY.atStartOfDay(TZ).toInstant().toEpochMilli();
+
+		SlotIndex base = SlotIndex.build(DAY, TZ, blocks, BusyTimeline.of(List.of(a)));
+		SlotIndex patched = base.patch(BusyTimeline.of(List.of(b)), a, b);
+		SlotIndex rebuilt = SlotIndex.build(DAY, TZ, blocks, BusyTimeline.of(List.of(b)));
+
+		for (int minutes : List.of(10, 15, 30, 40, 60, 90)) {
+			long needed = Duration.ofMinutes(minutes).toMillis();
+			assertEquals(rebuilt.starts(needed, dayStart, TZ), patched.starts(needed, dayStart, TZ), "" + minutes);
+		}
+	}
+
+	@Test
+	void matchesPerBlockScanOnRandomDays() {
+		Random random = new Random(7);
+		List<LocalDate> days = List.of(DAY, SPRING_FORWARD, FALL_BACK);
+		for (int round = 0; round < 500; round++) {
+			LocalDate day = days.get(random.nextInt(days.size()));
+
+			// blocos sem sobreposição, alguns a tocar-se, com minutos fora da grelha; a partir das 03:00
+			// para nenhum bloco começar na hora que falta ou se repete (aí dois blocos podiam sobrepor-se)
+			List<WorkBlock> blocks = new ArrayList<>();
+			int minute = 3 * 60 + random.nextInt(6 * 60);
+			while (minute < 22 * 60) {
+				int length = 30 + random.nextInt(240);
+				int end = Math.min(minute + length, 23 * 60 + 59);
+				blocks.add(new WorkBlock(LocalTime.of(minute / 60, minute % 60), LocalTime.of(end / 60, end % 60)));
+				minute = end + (random.nextBoolean() ? 0 : random.nextInt(120));
+			}
+
+			List<BusyInterval> busy = new ArrayList<>();
+			for (long id = 0; id < random.nextInt(8); id++) {
+				int s = random.nextInt(24 * 60);
+				OffsetDateTime start = day.atStartOfDay(TZ).plusMinutes(s).toOffsetDateTime();
+				busy.add(busy(id, start, start.plusMinutes(5 + random.nextInt(120))));
+			}
+			busy.sort(BusyInterval.BY_START);
+
+			int needed = 5 + random.nextInt(120);
+			long notBefore = random.nextBoolean() ? NO_CUTOFF
+					: day.atStartOfDay(TZ).plusMinutes(random.nextInt(24 * 60)).toInstant().toEpochMilli();
+
+			assertEquals(reference(day, blocks, busy, needed, notBefore), starts(day, blocks, busy, needed, notBefore),
+					"ronda " + round + " " + day + " " + blocks + " " + needed);
+		}
+	}
+
+	private static List<OffsetDateTime> starts(LocalDate day, List<WorkBlock> blocks, List<BusyInterval> busy,
+											   int minutes, long notBeforeMs) {
+		return SlotIndex.build(day, TZ, blocks, BusyTimeline.of(busy))
+				.starts(Duration.ofMinutes(minutes).toMillis(), notBeforeMs, TZ);
+	}
+
+	/** O cálculo de antes do índice: cada bloco percorrido de 15 em 15 minutos. */
+	private static List<OffsetDateTime> reference(LocalDate day, List<WorkBlock> blocks, List<BusyInterval> busy,
+												  int minutes, long notBeforeMs) {
+		TreeSet<OffsetDateTime> out = new TreeSet<>(Comparator.comparing(OffsetDateTime::toInstant));
+		for (WorkBlock block : blocks) {
+			ZonedDateTime blockStart = day.atTime(block.start()).atZone(TZ);
+			ZonedDateTime blockEnd = day.atTime(block.end()).atZone(TZ);
+			ZonedDateTime cand = blockStart;
+			int mod = cand.getMinute() % SlotIndex.GRANULE_MIN;
+			if (mod != 0) cand = cand.plusMinutes(SlotIndex.GRANULE_MIN - mod);
+			for (; !cand.plusMinutes(minutes).isAfter(blockEnd); cand = cand.plusMinutes(SlotIndex.GRANULE_MIN)) {
+				if (cand.toInstant().toEpochMilli() < notBeforeMs) continue;
+				OffsetDateTime s = cand.toOffsetDateTime();
+				OffsetDateTime e = s.plusMinutes(minutes);
+				if (busy.stream().noneMatch(b -> b.overlaps(s, e))) out.add(s);
+			}
+		}
+		return new ArrayList<>(out);
+	}
+
+	private static WorkBlock block(int h1, int m1, int h2, int m2) {
+		return new WorkBlock(LocalTime.of(h1, m1), LocalTime.of(h2, m2));
+	}
+
+	private static BusyInterval busy(Long id, OffsetDateTime start, OffsetDateTime end) {
+		return new BusyInterval(1L, id, start, end);
+	}
+
+	private static OffsetDateTime at(LocalDate day, int hour, int minute) {
+		return day.atTime(hour, minute).atZone(TZ).toOffsetDateTime();
+	}
+}